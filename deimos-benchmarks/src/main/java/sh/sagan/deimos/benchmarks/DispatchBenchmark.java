@@ -0,0 +1,115 @@
+package sh.sagan.deimos.benchmarks;
+
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sh.sagan.deimos.command.DeimosCommand;
+import sh.sagan.deimos.command.SubInvoker;
+import sh.sagan.deimos.command.annotations.SubCommand;
+import sh.sagan.deimos.type.Converter;
+import sh.sagan.deimos.type.TypeRegistry;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Dispatches a whole command through {@link DeimosCommand#execute}, against commands with 1, 50 and 500 sub commands.
+ * Every sub command has its own base ("sub0", "sub1", ...) and takes (Integer, @Optional Boolean, String).
+ *
+ *     hit: runs the last registered sub command
+ *     miss: an unknown base, every candidate is checked and rejected
+ *     rejected: a known base with args that don't convert
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+
+    @Param({"1", "50", "500"})
+    private int subs;
+
+    private BenchCommand command;
+    private Player player;
+    private String[] hit;
+    private String[] miss;
+    private String[] rejected;
+
+    @Setup
+    public void setup() {
+        TypeRegistry registry = new TypeRegistry();
+        Converter<?> integer = registry.getConverter(Integer.class).get();
+        Converter<?> bool = registry.getConverter(Boolean.class).get();
+        Converter<?> string = registry.getConverter(String.class).get();
+
+        this.command = new BenchCommand();
+        SubInvoker invoker = (player, args) -> this.command.sink += args.get(0).hashCode();
+
+        // the declared sub command ("sub0") first, then the generated ones
+        this.command.registerSubs(Logger.getLogger("bench"), registry);
+        List<DeimosCommand.Sub> generated = new ArrayList<>();
+        for (int i = 1; i < this.subs; i++) {
+            generated.add(new DeimosCommand.Sub("sub" + i, false, false, null, Arrays.asList(
+                    new DeimosCommand.Arg(Integer.class, integer, Optional.empty()),
+                    new DeimosCommand.Arg(Boolean.class, bool, Optional.of("")),
+                    new DeimosCommand.Arg(String.class, string, Optional.empty())), invoker));
+        }
+        this.command.addSubs(generated);
+
+        this.player = (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class[]{Player.class},
+                (proxy, method, args) -> method.getReturnType() == boolean.class ? false : null);
+
+        this.hit = new String[]{"sub" + (this.subs - 1), "64", "true", "diamond"};
+        this.miss = new String[]{"nope", "64", "true", "diamond"};
+        this.rejected = new String[]{"sub" + (this.subs - 1), "x", "true", "diamond"};
+
+        if (!this.hit() || this.miss() || this.rejected()) {
+            throw new IllegalStateException("Unexpected dispatch result");
+        }
+    }
+
+    @Benchmark
+    public boolean hit() {
+        return this.command.execute(this.player, "bench", this.hit);
+    }
+
+    @Benchmark
+    public boolean miss() {
+        return this.command.execute(this.player, "bench", this.miss);
+    }
+
+    @Benchmark
+    public boolean rejected() {
+        return this.command.execute(this.player, "bench", this.rejected);
+    }
+
+    public static class BenchCommand extends DeimosCommand {
+
+        private int sink;
+
+        public BenchCommand() {
+            super("bench");
+        }
+
+        @SubCommand(base = "sub0")
+        private void sub0(Player player, Integer amount, @sh.sagan.deimos.command.annotations.Optional Boolean flag, String item) {
+            this.sink += amount;
+        }
+    }
+}
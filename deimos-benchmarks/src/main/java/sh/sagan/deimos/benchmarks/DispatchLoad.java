@@ -0,0 +1,92 @@
+package sh.sagan.deimos.benchmarks;
+
+import org.bukkit.entity.Player;
+import sh.sagan.deimos.command.DeimosCommand;
+import sh.sagan.deimos.command.DeimosCommandManager;
+import sh.sagan.deimos.command.annotations.Optional;
+import sh.sagan.deimos.command.annotations.SubCommand;
+import sh.sagan.deimos.command.annotations.Text;
+import sh.sagan.deimos.harness.CommandMix;
+import sh.sagan.deimos.harness.LoadGenerator;
+import sh.sagan.deimos.harness.LocalServer;
+
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load tests dispatching on a {@link LocalServer} with 200 players, at 1 thread and then at doubling thread counts up to
+ * the number of processors. Runs a synthetic mix of hits, rejected args and unknown commands against a small command,
+ * or the command lines of a file (a line per command) if one is given:
+ *
+ *     java -cp target/benchmarks.jar sh.sagan.deimos.benchmarks.DispatchLoad [seconds] [file]
+ */
+public final class DispatchLoad {
+
+    private DispatchLoad() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        long seconds = args.length > 0 ? Long.parseLong(args[0]) : 5;
+
+        LocalServer server = new LocalServer();
+        for (int i = 0; i < 200; i++) {
+            server.join("Player" + i);
+        }
+        DeimosCommandManager manager = new DeimosCommandManager(server);
+        manager.register(new LoadCommand());
+        manager.registerAllIntoSpigot();
+
+        CommandMix mix;
+        if (args.length > 1) {
+            mix = CommandMix.read(Paths.get(args[1]));
+        } else {
+            Map<String, Integer> lines = new LinkedHashMap<>();
+            lines.put("load give {player} 64 diamond", 40);
+            lines.put("load give {player} 1", 20);
+            lines.put("load pay {player} 12.5", 15);
+            lines.put("load msg {player} see you at spawn", 15);
+            lines.put("load give {player} lots diamond", 5);
+            lines.put("nope", 5);
+            mix = CommandMix.weighted(lines);
+        }
+
+        // warm up the dispatch path before measuring
+        new LoadGenerator(server, mix, 1).runFor(Math.max(1, seconds / 2), TimeUnit.SECONDS);
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; ; threads = Math.min(threads * 2, processors)) {
+            System.out.println(new LoadGenerator(server, mix, threads).runFor(seconds, TimeUnit.SECONDS));
+            if (threads == processors) {
+                break;
+            }
+        }
+
+        manager.shutdown();
+    }
+
+    public static class LoadCommand extends DeimosCommand {
+
+        private volatile int sink;
+
+        public LoadCommand() {
+            super("load");
+        }
+
+        @SubCommand(base = "give")
+        void give(Player player, Player target, int amount, @Optional("stone") String item) {
+            this.sink += amount + item.length();
+        }
+
+        @SubCommand(base = "pay")
+        void pay(Player player, Player target, double amount) {
+            this.sink += (int) amount;
+        }
+
+        @SubCommand(base = "msg")
+        void msg(Player player, Player target, @Text String message) {
+            this.sink += message.length();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package sh.sagan.deimos.benchmarks;
+
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sh.sagan.deimos.command.Arguments;
+import sh.sagan.deimos.command.DeimosCommand;
+import sh.sagan.deimos.command.SubInvoker;
+import sh.sagan.deimos.command.annotations.SubCommand;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares calling a sub command method through plain reflection against the {@link SubInvoker} bound at
+ * registration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvokerBenchmark {
+
+    private BenchCommand command;
+    private Method method;
+    private SubInvoker invoker;
+    private Object[] values;
+    private Arguments arguments;
+
+    @Setup
+    public void setup() throws Exception {
+        this.command = new BenchCommand();
+        this.method = BenchCommand.class.getDeclaredMethod("give", Player.class, int.class, String.class);
+        this.method.setAccessible(true);
+        this.invoker = SubInvoker.of(this.command, this.method);
+        this.values = new Object[]{64, "diamond"};
+        this.arguments = new Arguments(2);
+        this.arguments.setBits(0, 64);
+        this.arguments.set(1, "diamond");
+    }
+
+    @Benchmark
+    public int reflection() throws Exception {
+        this.method.invoke(this.command, null, this.values[0], this.values[1]);
+        return this.command.sink;
+    }
+
+    @Benchmark
+    public int invoker() throws Throwable {
+        this.invoker.invoke(null, this.arguments);
+        return this.command.sink;
+    }
+
+    public static class BenchCommand extends DeimosCommand {
+
+        private int sink;
+
+        public BenchCommand() {
+            super("bench");
+        }
+
+        @SubCommand(base = "give")
+        private void give(Player player, int amount, String item) {
+            this.sink += amount + item.length();
+        }
+    }
+}
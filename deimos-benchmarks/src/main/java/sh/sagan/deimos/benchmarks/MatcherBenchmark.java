@@ -0,0 +1,113 @@
+package sh.sagan.deimos.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sh.sagan.deimos.command.ConversionMemo;
+import sh.sagan.deimos.command.DeimosCommand;
+import sh.sagan.deimos.command.DeimosExecutor;
+import sh.sagan.deimos.command.Tokens;
+import sh.sagan.deimos.type.Converter;
+import sh.sagan.deimos.type.TypeRegistry;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matches raw args against a single sub command, once for every branch of
+ * {@link DeimosExecutor#hasAcceptAbleArguments(Tokens, DeimosCommand.Sub, ConversionMemo)}. Each branch has a raw
+ * input that matches and one that is rejected on the last raw arg, so the whole sub command is checked either way.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatcherBenchmark {
+
+    public enum Branch {
+        // sub(Integer, String, @Text String)
+        TEXT_ENDING,
+        // sub(Integer, Integer, Integer)
+        ALL_REQUIRED,
+        // sub(@Optional Integer, @Optional Boolean, @Optional Integer): the raw args are shifted along the params
+        ALL_OPTIONAL,
+        // sub(Integer, @Optional Boolean, @Optional Integer, Integer)
+        MIX
+    }
+
+    @Param
+    private Branch branch;
+
+    @Param({"true", "false"})
+    private boolean matching;
+
+    private DeimosCommand.Sub sub;
+    private String[] rawArgs;
+
+    @Setup
+    public void setup() {
+        TypeRegistry registry = new TypeRegistry();
+        Converter<?> integer = registry.getConverter(Integer.class).get();
+        Converter<?> bool = registry.getConverter(Boolean.class).get();
+        Converter<?> string = registry.getConverter(String.class).get();
+
+        List<DeimosCommand.Arg> args;
+        switch (this.branch) {
+            case TEXT_ENDING:
+                args = Arrays.asList(
+                        new DeimosCommand.Arg(Integer.class, integer, Optional.empty()),
+                        new DeimosCommand.Arg(String.class, string, Optional.empty()),
+                        new DeimosCommand.Arg(String.class, string, Optional.empty(), true));
+                this.rawArgs = this.matching
+                        ? new String[]{"5", "reason", "the", "rest", "of", "the", "message"}
+                        : new String[]{"five", "reason", "the", "rest", "of", "the", "message"};
+                break;
+            case ALL_REQUIRED:
+                args = Arrays.asList(
+                        new DeimosCommand.Arg(Integer.class, integer, Optional.empty()),
+                        new DeimosCommand.Arg(Integer.class, integer, Optional.empty()),
+                        new DeimosCommand.Arg(Integer.class, integer, Optional.empty()));
+                this.rawArgs = this.matching ? new String[]{"1", "2", "3"} : new String[]{"1", "2", "x"};
+                break;
+            case ALL_OPTIONAL:
+                args = Arrays.asList(
+                        new DeimosCommand.Arg(Integer.class, integer, Optional.of("0")),
+                        new DeimosCommand.Arg(Boolean.class, bool, Optional.of("")),
+                        new DeimosCommand.Arg(Integer.class, integer, Optional.of("0")));
+                this.rawArgs = this.matching ? new String[]{"true", "3"} : new String[]{"true", "x"};
+                break;
+            case MIX:
+            default:
+                args = Arrays.asList(
+                        new DeimosCommand.Arg(Integer.class, integer, Optional.empty()),
+                        new DeimosCommand.Arg(Boolean.class, bool, Optional.of("")),
+                        new DeimosCommand.Arg(Integer.class, integer, Optional.of("0")),
+                        new DeimosCommand.Arg(Integer.class, integer, Optional.empty()));
+                this.rawArgs = this.matching ? new String[]{"1", "2", "3"} : new String[]{"1", "2", "x"};
+                break;
+        }
+        this.sub = new DeimosCommand.Sub("sub", false, false, null, args, null);
+
+        if (this.match().isPresent() != this.matching) {
+            throw new IllegalStateException(this.branch + " should " + (this.matching ? "" : "not ") + "match");
+        }
+    }
+
+    @Benchmark
+    public Optional<List<DeimosExecutor.PassType>> match() {
+        Tokens tokens = new Tokens(this.rawArgs);
+        return DeimosExecutor.hasAcceptAbleArguments(tokens, this.sub, new ConversionMemo(tokens));
+    }
+}
@@ -0,0 +1,142 @@
+package sh.sagan.deimos.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sh.sagan.deimos.command.ConversionMemo;
+import sh.sagan.deimos.command.DeimosCommand;
+import sh.sagan.deimos.command.DeimosExecutor;
+import sh.sagan.deimos.command.MixMatcher;
+import sh.sagan.deimos.command.Tokens;
+import sh.sagan.deimos.type.Converter;
+import sh.sagan.deimos.type.TypeRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the table based {@link MixMatcher} against the placement enumeration it replaced, on a sub command with a
+ * required param at each end and a run of optional params in between:
+ *
+ *     sub(Integer, @Optional Boolean, @Optional Integer, ..., Integer)
+ *
+ * The raw args fill the first and last param and the last few optional Integer params, so the enumeration has to go
+ * through most of the placements before finding the match.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MixMatcherBenchmark {
+
+    @Param({"8", "12", "16"})
+    private int optionalParams;
+
+    private DeimosCommand.Sub sub;
+    private String[] rawArgs;
+
+    @Setup
+    public void setup() {
+        TypeRegistry registry = new TypeRegistry();
+        Converter<?> integer = registry.getConverter(Integer.class).get();
+        Converter<?> bool = registry.getConverter(Boolean.class).get();
+
+        List<DeimosCommand.Arg> args = new ArrayList<>();
+        args.add(new DeimosCommand.Arg(Integer.class, integer, Optional.empty()));
+        for (int i = 0; i < this.optionalParams; i++) {
+            args.add(i % 2 == 0
+                    ? new DeimosCommand.Arg(Boolean.class, bool, Optional.of(""))
+                    : new DeimosCommand.Arg(Integer.class, integer, Optional.of("0")));
+        }
+        args.add(new DeimosCommand.Arg(Integer.class, integer, Optional.empty()));
+        this.sub = new DeimosCommand.Sub("mix", false, false, null, args, null);
+
+        this.rawArgs = new String[]{"1", "2", "3", "4", "5"};
+
+        if (!this.table().equals(this.enumeration())) {
+            throw new IllegalStateException("Matchers disagree: " + this.table() + " vs " + this.enumeration());
+        }
+    }
+
+    @Benchmark
+    public Optional<List<DeimosExecutor.PassType>> table() {
+        Tokens tokens = new Tokens(this.rawArgs);
+        return MixMatcher.match(tokens, this.sub, new ConversionMemo(tokens));
+    }
+
+    @Benchmark
+    public Optional<List<DeimosExecutor.PassType>> enumeration() {
+        Tokens tokens = new Tokens(this.rawArgs);
+        return enumerate(tokens, this.sub, new ConversionMemo(tokens));
+    }
+
+    /**
+     * The placement enumeration the MIX case used before: walk every increasing placement of the raw args over the
+     * params in order, skip the ones that leave a required param empty and convert the rest until one fits.
+     */
+    private static Optional<List<DeimosExecutor.PassType>> enumerate(Tokens rawArgs, DeimosCommand.Sub sub, ConversionMemo memo) {
+        int[] placements = new int[rawArgs.size()];
+        for (int i = 0; i < placements.length; i++) {
+            placements[i] = i;
+        }
+
+        OUTER:
+        while (true) {
+            // every required param has to have a raw arg placed on it
+            int placed = 0;
+            for (int j = 0; j < sub.arity(); j++) {
+                boolean hasPlacement = placed < placements.length && placements[placed] == j;
+                if (hasPlacement) {
+                    placed++;
+                } else if (sub.isRequired(j)) {
+                    if (!next(placements, sub.arity())) break;
+                    continue OUTER;
+                }
+            }
+
+            List<DeimosExecutor.PassType> passTypes = new ArrayList<>();
+            placed = 0;
+            for (int j = 0; j < sub.arity(); j++) {
+                if (placed < placements.length && placements[placed] == j) {
+                    if (!memo.accepts(placed, sub.getConverter(j))) {
+                        if (!next(placements, sub.arity())) break OUTER;
+                        continue OUTER;
+                    }
+                    passTypes.add(DeimosExecutor.PassType.PASS_VALUE);
+                    placed++;
+                } else {
+                    passTypes.add(sub.getAbsentPassType(j));
+                }
+            }
+            return Optional.of(passTypes);
+        }
+
+        return Optional.empty();
+    }
+
+    // moves to the next increasing placement in lexicographic order, false when there is none left
+    private static boolean next(int[] placements, int size) {
+        for (int i = placements.length - 1; i >= 0; i--) {
+            if (placements[i] < size - placements.length + i) {
+                placements[i]++;
+                for (int k = i + 1; k < placements.length; k++) {
+                    placements[k] = placements[k - 1] + 1;
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+}
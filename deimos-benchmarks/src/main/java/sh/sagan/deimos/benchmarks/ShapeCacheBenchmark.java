@@ -0,0 +1,105 @@
+package sh.sagan.deimos.benchmarks;
+
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sh.sagan.deimos.command.DeimosCommand;
+import sh.sagan.deimos.command.SubInvoker;
+import sh.sagan.deimos.type.Converter;
+import sh.sagan.deimos.type.converters.BooleanConverter;
+import sh.sagan.deimos.type.converters.IntConverter;
+import sh.sagan.deimos.type.converters.StringConverter;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatches the same args with the shape cache hit every time and with it never used, to see what a hit saves. All
+ * the sub commands share the base "give": the first ones take (int, boolean) and reject the args, the last one takes
+ * (int, String) and runs. The cache is turned off by giving the params converters that report they are not stateless
+ * (and otherwise behave the same), so nothing is ever stored in it.
+ *
+ *     hit: cached = true, the args resolve through the cache and only the chosen sub command's args are checked
+ *     miss: cached = false, every sub command of "give" is tried
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShapeCacheBenchmark {
+
+    @Param({"1", "8", "32"})
+    private int subs;
+
+    @Param({"true", "false"})
+    private boolean cached;
+
+    private DeimosCommand command;
+    private Player player;
+    private String[] args;
+    private int sink;
+
+    @Setup
+    public void setup() {
+        Converter<?> integer = this.cached ? new IntConverter() : new IntConverter() {
+            @Override
+            public boolean isStateless() {
+                return false;
+            }
+        };
+        Converter<?> bool = this.cached ? new BooleanConverter() : new BooleanConverter() {
+            @Override
+            public boolean isStateless() {
+                return false;
+            }
+        };
+        Converter<?> string = this.cached ? new StringConverter() : new StringConverter() {
+            @Override
+            public boolean isStateless() {
+                return false;
+            }
+        };
+
+        SubInvoker invoker = (player, args) -> this.sink += args.getInt(0);
+        List<DeimosCommand.Sub> subs = new ArrayList<>();
+        for (int i = 0; i < this.subs - 1; i++) {
+            subs.add(new DeimosCommand.Sub("give", false, false, null, Arrays.asList(
+                    new DeimosCommand.Arg(int.class, integer, Optional.empty()),
+                    new DeimosCommand.Arg(boolean.class, bool, Optional.empty())), invoker));
+        }
+        subs.add(new DeimosCommand.Sub("give", false, false, null, Arrays.asList(
+                new DeimosCommand.Arg(int.class, integer, Optional.empty()),
+                new DeimosCommand.Arg(String.class, string, Optional.empty())), invoker));
+
+        this.command = new DeimosCommand("bench");
+        this.command.addSubs(subs);
+        this.player = (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class[]{Player.class},
+                (proxy, method, args) -> method.getReturnType() == boolean.class ? false : null);
+        this.args = new String[]{"give", "64", "diamond"};
+
+        int before = this.sink;
+        if (!this.dispatch() || this.sink != before + 64 || (this.command.getShapeCache().size() == 1) != this.cached) {
+            throw new IllegalStateException("Unexpected dispatch result");
+        }
+    }
+
+    @Benchmark
+    public boolean dispatch() {
+        return this.command.execute(this.player, "bench", this.args);
+    }
+}
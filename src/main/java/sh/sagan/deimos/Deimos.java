@@ -14,6 +14,13 @@ public class Deimos extends JavaPlugin {
         commandManager = new DeimosCommandManager(this);
     }
 
+    @Override
+    public void onDisable() {
+        if (commandManager != null) {
+            commandManager.shutdown();
+        }
+    }
+
     public static Deimos getInstance() {
         return instance;
     }
@@ -0,0 +1,111 @@
+package sh.sagan.deimos.command;
+
+/**
+ * The converted values passed to a sub command, one slot per param (not counting the player param). Params declared
+ * with a primitive type keep their value unboxed, encoded into a long:
+ *
+ *     int, short, byte, char and long: the value itself
+ *     boolean: 1 for true, 0 for false
+ *     double: Double.doubleToRawLongBits
+ *     float: Float.floatToRawIntBits
+ *
+ * Params declared with any other type keep their value as an object.
+ */
+public final class Arguments {
+
+    private final Object[] values;
+    private final long[] primitives;
+
+    public Arguments(int size) {
+        this.values = new Object[size];
+        this.primitives = new long[size];
+    }
+
+    private Arguments(Object[] values, long[] primitives) {
+        this.values = values;
+        this.primitives = primitives;
+    }
+
+    /**
+     * @return A copy that can be changed (or resolved into) without changing these, the values themselves are shared
+     */
+    public Arguments copy() {
+        return new Arguments(this.values.clone(), this.primitives.clone());
+    }
+
+    public int size() {
+        return this.values.length;
+    }
+
+    public Object get(int index) {
+        return this.values[index];
+    }
+
+    public void set(int index, Object value) {
+        this.values[index] = value;
+    }
+
+    public void setBits(int index, long bits) {
+        this.primitives[index] = bits;
+    }
+
+    public long getBits(int index) {
+        return this.primitives[index];
+    }
+
+    public int getInt(int index) {
+        return (int) this.primitives[index];
+    }
+
+    public long getLong(int index) {
+        return this.primitives[index];
+    }
+
+    public short getShort(int index) {
+        return (short) this.primitives[index];
+    }
+
+    public byte getByte(int index) {
+        return (byte) this.primitives[index];
+    }
+
+    public char getChar(int index) {
+        return (char) this.primitives[index];
+    }
+
+    public boolean getBoolean(int index) {
+        return this.primitives[index] != 0;
+    }
+
+    public double getDouble(int index) {
+        return Double.longBitsToDouble(this.primitives[index]);
+    }
+
+    public float getFloat(int index) {
+        return Float.intBitsToFloat((int) this.primitives[index]);
+    }
+
+    /**
+     * Encodes a boxed value for a param of the given primitive type, for converters that don't parse to primitives
+     * themselves.
+     *
+     * @param type The primitive type of the param
+     * @param value The boxed value (Integer for int, ...), null is encoded as 0 (or false)
+     * @return The encoded value
+     */
+    public static long encode(Class<?> type, Object value) {
+        if (value == null) {
+            return 0;
+        } else if (type == boolean.class) {
+            return (Boolean) value ? 1 : 0;
+        } else if (type == char.class) {
+            return (Character) value;
+        } else if (type == double.class) {
+            return Double.doubleToRawLongBits(((Number) value).doubleValue());
+        } else if (type == float.class) {
+            return Float.floatToRawIntBits(((Number) value).floatValue());
+        } else {
+            return ((Number) value).longValue();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package sh.sagan.deimos.command;
+
+import org.bukkit.command.CommandException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs a chunk of a batch of invocations on the main thread, see
+ * {@link DeimosCommandManager#executeBatch(List, int)}.
+ *
+ * Every invocation is first matched, then they are run grouped by the sub command they matched, in the order each
+ * sub command was first matched (and in the order of the batch within a group). The lines of a batch from automation
+ * tend to repeat, so a line that was already matched in this chunk is not matched again if the result can't change:
+ * the converters it went through while matching and the converters of its sub command are all deterministic, which
+ * also means the values it was converted to can be passed again as they are (each invocation gets its own copy of
+ * them). Only identical lines share their conversions: lines that differ but have the same shape skip matching
+ * through the {@link ShapeCache} of their command, but each one converts its own raw args with a memo of its own, the
+ * memo is not kept per sub command and shape across the batch. Rate limits are not checked, they are there to stop
+ * players spamming and a batch comes from the server itself. Invocations of sub commands with params resolved by an
+ * {@link sh.sagan.deimos.type.AsyncConverter} finish later, once their values are ready.
+ */
+final class CommandBatch {
+
+    private final Map<String, DeimosCommand> labels;
+    private final InvocationResult[] results;
+    // invocations still to run grouped by the sub command they matched, first matched first
+    private final Map<DeimosCommand.Sub, List<Pending>> groups = new IdentityHashMap<>();
+    private final List<DeimosCommand.Sub> order = new ArrayList<>();
+    private final Map<String, Pending> resolved = new HashMap<>();
+
+    /**
+     * @param commands The commands the lines can be for
+     * @param results Where the result of each invocation goes, by its index in the batch
+     */
+    CommandBatch(Collection<DeimosCommand> commands, InvocationResult[] results) {
+        this.results = results;
+
+        // the same labels the command map knows the commands by, looked up once per chunk
+        Map<String, DeimosCommand> labels = new HashMap<>();
+        for (DeimosCommand command : commands) {
+            for (String alias : command.getAliases()) {
+                labels.put(alias.toLowerCase(Locale.ROOT), command);
+            }
+        }
+        for (DeimosCommand command : commands) {
+            labels.put(command.getRoot().toLowerCase(Locale.ROOT), command);
+        }
+        this.labels = labels;
+    }
+
+    /**
+     * Matches the invocations from {@code from} (inclusive) to {@code to} (exclusive) and runs them.
+     *
+     * @return Completes once the invocations still resolving their args have their result as well
+     */
+    CompletableFuture<Void> run(List<Invocation> invocations, int from, int to) {
+        for (int index = from; index < to; index++) {
+            this.add(index, invocations.get(index));
+        }
+
+        List<CompletableFuture<Void>> resolving = new ArrayList<>();
+        for (DeimosCommand.Sub sub : this.order) {
+            for (Pending pending : this.groups.get(sub)) {
+                Invocation invocation = invocations.get(pending.index);
+                if (sub.hasAsyncArgs()) {
+                    resolving.add(pending.command.getExecutor()
+                            .invokeWhenResolved(invocation.getPlayer(), pending.label, sub, pending.arguments)
+                            .handle((ignored, error) -> {
+                                this.results[pending.index] = error == null
+                                        ? new InvocationResult(invocation, InvocationResult.Status.EXECUTED, null)
+                                        : new InvocationResult(invocation, InvocationResult.Status.FAILED,
+                                        error.getCause() == null ? error : error.getCause());
+                                return null;
+                            }));
+                    continue;
+                }
+
+                try {
+                    pending.command.getExecutor().invoke(invocation.getPlayer(), pending.label, sub, pending.arguments);
+                    this.results[pending.index] = new InvocationResult(invocation, InvocationResult.Status.EXECUTED, null);
+                } catch (CommandException e) {
+                    Throwable cause = e.getCause() == null ? e : e.getCause();
+                    this.results[pending.index] = new InvocationResult(invocation, InvocationResult.Status.FAILED, cause);
+                }
+            }
+        }
+        return CompletableFuture.allOf(resolving.toArray(new CompletableFuture<?>[0]));
+    }
+
+    private void add(int index, Invocation invocation) {
+        String line = invocation.getLine();
+        Pending known = this.resolved.get(line);
+        if (known != null) {
+            this.group(known.sub, new Pending(index, known.command, known.label, known.sub, known.arguments.copy()));
+            return;
+        }
+
+        // split the same way the server does before it dispatches a command
+        String[] words = line.split(" ", -1);
+        String label = words[0].toLowerCase(Locale.ROOT);
+        DeimosCommand command = this.labels.get(label);
+        if (command == null) {
+            this.results[index] = new InvocationResult(invocation, InvocationResult.Status.UNKNOWN_COMMAND, null);
+            return;
+        }
+
+        String[] args = new String[words.length - 1];
+        System.arraycopy(words, 1, args, 0, args.length);
+        DeimosExecutor.Match match = command.getExecutor().match(args);
+        if (match == null) {
+            this.results[index] = new InvocationResult(invocation, InvocationResult.Status.NO_MATCH, null);
+            return;
+        }
+
+        DeimosCommand.Sub sub = match.getSub();
+        Arguments arguments = command.getExecutor().materialize(match);
+        if (arguments == null) {
+            this.results[index] = new InvocationResult(invocation, InvocationResult.Status.NO_MATCH, null);
+            return;
+        }
+        Pending pending = new Pending(index, command, label, sub, arguments);
+        if (match.getMemo().isDeterministic() && isDeterministic(sub)) {
+            // kept apart from the one that runs, resolving async values fills in its arguments
+            this.resolved.put(line, new Pending(index, command, label, sub, arguments.copy()));
+        }
+        this.group(sub, pending);
+    }
+
+    private void group(DeimosCommand.Sub sub, Pending pending) {
+        List<Pending> group = this.groups.get(sub);
+        if (group == null) {
+            group = new ArrayList<>();
+            this.groups.put(sub, group);
+            this.order.add(sub);
+        }
+        group.add(pending);
+    }
+
+    // defaults and joined @Text args are converted outside of the memo, so every converter of the sub command counts
+    private static boolean isDeterministic(DeimosCommand.Sub sub) {
+        for (int i = 0; i < sub.arity(); i++) {
+            if (!sub.getConverter(i).isDeterministic()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Pending {
+        private final int index;
+        private final DeimosCommand command;
+        private final String label;
+        private final DeimosCommand.Sub sub;
+        private final Arguments arguments;
+
+        private Pending(int index, DeimosCommand command, String label, DeimosCommand.Sub sub, Arguments arguments) {
+            this.index = index;
+            this.command = command;
+            this.label = label;
+            this.sub = sub;
+            this.arguments = arguments;
+        }
+    }
+}
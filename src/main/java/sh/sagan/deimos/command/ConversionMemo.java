@@ -0,0 +1,192 @@
+package sh.sagan.deimos.command;
+
+import sh.sagan.deimos.metrics.DispatchMetrics;
+import sh.sagan.deimos.type.AsyncConverter;
+import sh.sagan.deimos.type.Converter;
+import sh.sagan.deimos.type.PrimitiveConverter;
+import sh.sagan.deimos.type.TokenClass;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Remembers the conversions made while processing a single command invocation. Every candidate sub command and every
+ * placement tried while matching goes through here, so each raw arg is converted at most once per converter no matter
+ * how many sub commands (or shifts of optional params) it gets checked against. The chosen sub command's values are
+ * then taken straight from here as well.
+ *
+ * Converters are compared by identity, converters from the {@link sh.sagan.deimos.type.TypeRegistry} are shared between
+ * all params of the same type.
+ */
+public final class ConversionMemo {
+
+    // results of primitive converters that were only checked, not converted
+    private static final Object ACCEPTED = new Object();
+    private static final Object REJECTED = new Object();
+
+    private final Tokens tokens;
+    private final DispatchMetrics metrics;
+    private final Converter<?>[][] converters;
+    private final Object[][] results;
+    private final int[] counts;
+    // the token class bit of each raw arg, 0 until it is classified
+    private final int[] classes;
+    private boolean deterministic = true;
+
+    /**
+     * @param tokens The raw args of the invocation
+     * @param metrics Where rejected raw args are counted (once per raw arg and converter), null to not count them
+     */
+    public ConversionMemo(Tokens tokens, DispatchMetrics metrics) {
+        int size = tokens.getSource().length;
+        this.tokens = tokens;
+        this.metrics = metrics;
+        this.converters = new Converter<?>[size][];
+        this.results = new Object[size][];
+        this.counts = new int[size];
+        this.classes = new int[size];
+    }
+
+    public ConversionMemo(Tokens tokens) {
+        this(tokens, null);
+    }
+
+    /**
+     * Checks whether the raw arg at the given index of the token view is accepted by the converter. This is what the
+     * matcher uses: raw args of a {@link TokenClass} the converter can't accept are rejected right away, otherwise
+     * {@link PrimitiveConverter}s only check the raw arg (no boxing, no exceptions), {@link AsyncConverter}s only check
+     * it as well (it is resolved once the sub command is chosen) while any other converter has to convert it, in which
+     * case the converted value is kept for {@link #convert(int, Converter)}.
+     *
+     * @param index The index in the current token view (the memo itself is keyed on the index in the original args)
+     * @param converter The converter to check the raw arg with
+     * @return Whether the converter accepts the raw arg
+     */
+    public boolean accepts(int index, Converter<?> converter) {
+        return this.accepts(index, converter, converter.acceptedClasses());
+    }
+
+    /**
+     * Checks whether the raw arg at the given index of the token view is accepted by a param of the sub command.
+     *
+     * @param index The index in the current token view
+     * @param sub The sub command
+     * @param param The index of the param
+     * @return Whether the converter of the param accepts the raw arg
+     */
+    public boolean accepts(int index, DeimosCommand.Sub sub, int param) {
+        return this.accepts(index, sub.getConverter(param), sub.getAcceptedClasses(param));
+    }
+
+    private boolean accepts(int index, Converter<?> converter, int acceptedClasses) {
+        // ruled out by its class, this never gets to the converter
+        if ((this.classBit(index) & acceptedClasses) == 0) {
+            return false;
+        }
+
+        int absolute = this.tokens.absoluteIndex(index);
+        Object result = this.find(absolute, converter);
+
+        if (result == null) {
+            this.deterministic &= converter.isDeterministic();
+            if (converter instanceof PrimitiveConverter) {
+                result = ((PrimitiveConverter<?>) converter).accepts(this.tokens.get(index)) ? ACCEPTED : REJECTED;
+            } else if (converter instanceof AsyncConverter) {
+                result = ((AsyncConverter<?>) converter).accepts(this.tokens.get(index)) ? ACCEPTED : REJECTED;
+            } else {
+                result = converter.convert(this.tokens.get(index));
+            }
+            this.store(absolute, converter, result);
+
+            if (this.metrics != null && (result == REJECTED
+                    || (result != ACCEPTED && !((Optional<?>) result).isPresent()))) {
+                this.metrics.recordConversionFailure(converter);
+            }
+        }
+
+        return result == ACCEPTED || (result != REJECTED && ((Optional<?>) result).isPresent());
+    }
+
+    /**
+     * Converts the raw arg at the given index of the token view, or returns the result of the last time it was
+     * converted with the same converter.
+     *
+     * @param index The index in the current token view (the memo itself is keyed on the index in the original args)
+     * @param converter The converter to convert the raw arg with
+     * @return The result of the conversion
+     */
+    public Optional<?> convert(int index, Converter<?> converter) {
+        int absolute = this.tokens.absoluteIndex(index);
+        Object result = this.find(absolute, converter);
+
+        if (result == REJECTED) {
+            return Optional.empty();
+        } else if (result == null || result == ACCEPTED) {
+            Optional<?> converted = converter.convert(this.tokens.get(index));
+            this.store(absolute, converter, converted);
+            return converted;
+        }
+
+        return (Optional<?>) result;
+    }
+
+    /**
+     * @param index The index in the current token view
+     * @return The {@link TokenClass#bit()} of the raw arg, raw args are only classified once per invocation
+     */
+    public int classBit(int index) {
+        int absolute = this.tokens.absoluteIndex(index);
+        int bit = this.classes[absolute];
+        if (bit == 0) {
+            bit = this.classes[absolute] = TokenClass.of(this.tokens.get(index)).bit();
+        }
+        return bit;
+    }
+
+    public Tokens getTokens() {
+        return tokens;
+    }
+
+    /**
+     * @return Whether every converter checked through {@link #accepts(int, Converter)} so far was deterministic, in
+     * which case the same raw args would be accepted and rejected the same way (and args of the same shape too, see
+     * {@link ShapeCache})
+     */
+    public boolean isDeterministic() {
+        return deterministic;
+    }
+
+    private Object find(int absolute, Converter<?> converter) {
+        Converter<?>[] keys = this.converters[absolute];
+        for (int i = 0; i < this.counts[absolute]; i++) {
+            if (keys[i] == converter) {
+                return this.results[absolute][i];
+            }
+        }
+        return null;
+    }
+
+    private void store(int absolute, Converter<?> converter, Object result) {
+        Converter<?>[] keys = this.converters[absolute];
+        int count = this.counts[absolute];
+
+        for (int i = 0; i < count; i++) {
+            if (keys[i] == converter) {
+                this.results[absolute][i] = result;
+                return;
+            }
+        }
+
+        // most raw args are only ever checked against a couple of different types
+        if (keys == null) {
+            keys = this.converters[absolute] = new Converter<?>[2];
+            this.results[absolute] = new Object[2];
+        } else if (count == keys.length) {
+            keys = this.converters[absolute] = Arrays.copyOf(keys, count * 2);
+            this.results[absolute] = Arrays.copyOf(this.results[absolute], count * 2);
+        }
+        keys[count] = converter;
+        this.results[absolute][count] = result;
+        this.counts[absolute] = count + 1;
+    }
+}
@@ -1,21 +1,35 @@
 package sh.sagan.deimos.command;
 
+import org.bukkit.ChatColor;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
+import sh.sagan.deimos.command.annotations.Async;
+import sh.sagan.deimos.command.annotations.Choices;
+import sh.sagan.deimos.command.annotations.Cooldown;
 import sh.sagan.deimos.command.annotations.Priority;
+import sh.sagan.deimos.command.annotations.RateLimit;
 import sh.sagan.deimos.command.annotations.SubCommand;
 import sh.sagan.deimos.command.annotations.Text;
+import sh.sagan.deimos.limit.RateLimiter;
+import sh.sagan.deimos.metrics.DispatchMetrics;
+import sh.sagan.deimos.scheduler.DeimosScheduler;
+import sh.sagan.deimos.trace.TraceRecorder;
+import sh.sagan.deimos.type.AsyncConverter;
 import sh.sagan.deimos.type.Converter;
 import sh.sagan.deimos.type.TypeRegistry;
+import sh.sagan.deimos.type.converters.ChoicesConverter;
 
 import javax.annotation.Nonnull;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -24,7 +38,16 @@ public class DeimosCommand extends Command {
     private final DeimosExecutor executor;
 
     private final String root;
-    private final List<Sub> subs = new ArrayList<>();
+    // replaced as a whole whenever the sub commands change, see SubTable
+    private volatile SubTable subTable = SubTable.EMPTY;
+
+    private Logger logger = Logger.getLogger(DeimosCommand.class.getName());
+    private DeimosScheduler scheduler;
+    private DispatchMetrics metrics;
+    // from the @Cooldown or @RateLimit of the command class, checked before the args of any sub command are looked at
+    private RateLimiter limiter;
+    // set and cleared while the server runs, see DeimosCommandManager#startRecording
+    private volatile TraceRecorder recorder;
 
     public DeimosCommand(String root, String usage, String desc, String... aliases) {
         super(root, desc, usage, Arrays.asList(aliases));
@@ -41,21 +64,141 @@ public class DeimosCommand extends Command {
     }
 
     public void registerSubs(Logger logger, TypeRegistry typeRegistry) {
+        this.logger = logger;
+
+        try {
+            this.limiter = RateLimiter.of(this.getClass().getAnnotation(Cooldown.class),
+                    this.getClass().getAnnotation(RateLimit.class)).orElse(null);
+        } catch (IllegalArgumentException e) {
+            logger.log(Level.WARNING, "Command is not rate limited. " + e.getMessage() + ": " + this.getClass().getName());
+        }
+
+        // the sub commands of a command compiled with the annotation processor were already checked at compile time
+        List<SubDeclaration> declarations = this.findGeneratedDeclarations(logger)
+                .orElseGet(() -> this.readDeclarations(logger));
+
+        List<Sub> subs = new ArrayList<>(declarations.size());
+
+        OUTER:
+        for (SubDeclaration declaration : declarations) {
+            /*
+            Note that if the last parameter has a @Text annotation, it's type does not necessarily have to
+            be 'String'. The raw string arguments are just joined together and passed into the type converter
+            placed on that @Text annotation parameter.
+             */
+
+            // constructing the arg from the parameters and its annotations
+            List<Arg> args = new ArrayList<>();
+            for (int i = 0; i < declaration.arity(); i++) {
+                Optional<Converter<?>> converter;
+                if (declaration.getChoices(i) != null) {
+                    // the choices are the only values the param takes, so they replace the converter of its type
+                    if (declaration.getType(i) != String.class) {
+                        logger.log(Level.WARNING, "Subcommand not registered. @Choices annotation can only be " +
+                                "applied to 'String' params: " + declaration.getSource());
+                        continue OUTER;
+                    }
+                    converter = Optional.of(new ChoicesConverter(declaration.getChoices(i)));
+                } else {
+                    converter = typeRegistry.getConverter(declaration.getType(i));
+                }
+                // make sure that the type on this parameter has a valid converter
+                if (!converter.isPresent()) {
+                    logger.log(Level.WARNING, "Subcommand not registered. No converter found for parameter type " +
+                            "'" + declaration.getType(i).getName() + "': " + declaration.getSource());
+                    continue OUTER;
+                }
+
+                // a check is made to ensure @Text only applies to the last arg
+                boolean text = declaration.isTextEnding() && i == declaration.arity() - 1;
+                args.add(new Arg(declaration.getType(i), converter.get(), Optional.ofNullable(declaration.getDefault(i)), text));
+            }
+
+            subs.add(new Sub(declaration.getBase(), declaration.hasPriority(), declaration.isAsync(),
+                    declaration.getLimiter().orElse(null), args,
+                    declaration.getInvoker()));
+        }
+
+        this.addSubs(subs);
+    }
+
+    /**
+     * Adds sub commands to this command. The bases are indexed once here (in a new {@link SubTable}) so dispatching
+     * only has to walk the args once, commands being dispatched while this runs keep using the previous table.
+     *
+     * @param subs The sub commands to add
+     */
+    public synchronized void addSubs(Collection<Sub> subs) {
+        this.subTable = this.subTable.with(subs);
+    }
+
+    /**
+     * Removes a sub command from this command, commands being dispatched while this runs keep using the previous
+     * table.
+     *
+     * @param sub The sub command to remove
+     * @return Whether the sub command was registered on this command
+     */
+    public synchronized boolean removeSub(Sub sub) {
+        if (!this.subTable.getSubs().contains(sub)) {
+            return false;
+        }
+        this.subTable = this.subTable.without(sub);
+        if (this.metrics != null) {
+            this.metrics.forget(Collections.singletonList(sub));
+        }
+        return true;
+    }
+
+    /**
+     * Looks for the registration class the annotation processor generated for this command.
+     *
+     * @return The sub commands declared by the generated registration, empty if there is none
+     */
+    @SuppressWarnings("unchecked")
+    private Optional<List<SubDeclaration>> findGeneratedDeclarations(Logger logger) {
+        Class<?> registrationClass;
+        try {
+            registrationClass = Class.forName(this.getClass().getName() + SubRegistration.SUFFIX, true,
+                    this.getClass().getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return Optional.empty();
+        }
+
+        try {
+            SubRegistration<DeimosCommand> registration =
+                    (SubRegistration<DeimosCommand>) registrationClass.getConstructor().newInstance();
+            return Optional.of(registration.declare(this));
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            logger.log(Level.WARNING, "Generated registration could not be used, reading sub commands of '" +
+                    this.getClass().getName() + "' reflectively", e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Reads the sub commands of this command from the annotations on its methods. This is only used for commands that
+     * were not compiled with the annotation processor, methods with invalid signatures are logged and skipped here.
+     */
+    private List<SubDeclaration> readDeclarations(Logger logger) {
+        List<SubDeclaration> declarations = new ArrayList<>();
 
         OUTER:
         for (Method method : this.getClass().getDeclaredMethods()) {
             if (method.isAnnotationPresent(SubCommand.class)) {
 
-                // begin making a sub command for this method because it has the required annotation.
-                // marked as priority if it has the annotation present on it. Default is false.
-                Sub sub = new Sub(method.getAnnotation(SubCommand.class).base(), method.isAnnotationPresent(Priority.class));
-
                 // make sure the first arg is always a player
-                if (!method.getParameters()[0].getType().equals(Player.class)) {
+                if (method.getParameterCount() == 0 || !method.getParameters()[0].getType().equals(Player.class)) {
                     logger.log(Level.WARNING, "Subcommand not registered. First argument must be of type 'Player':" + method.toString());
                     continue;
                 }
 
+                if (method.getParameterCount() - 1 > Sub.MAX_PARAMS) {
+                    logger.log(Level.WARNING, "Subcommand not registered. Too many parameters (max " + Sub.MAX_PARAMS +
+                            "): " + method.toString());
+                    continue;
+                }
+
                 Parameter[] parameters = method.getParameters();
 
                 // need to make sure that the only arg containing a Text annotation is the last one
@@ -73,63 +216,242 @@ public class DeimosCommand extends Command {
                 Currently, if a command ends in a @Text parameter, all the previous args MUST be required. This is due
                 to how the commands are processed and is currently being worked on for a more elegant solution.
                  */
-                if (parameters[parameters.length - 1].isAnnotationPresent(Text.class)) {
+                boolean textEnding = parameters[parameters.length - 1].isAnnotationPresent(Text.class);
+                if (textEnding) {
                     // -1 because @Text could be optional despite its predecessors not being allowed to be
                     for (int i = 0; i < parameters.length - 1; i++) {
                         Parameter parameter = parameters[i];
                         if (parameter.isAnnotationPresent(sh.sagan.deimos.command.annotations.Optional.class)) {
                             logger.log(Level.WARNING, "Subcommand not registered. @Optional annotation not allowed" +
                                     "on previous params of @Text ending subcommand: " + method.toString());
-                            break OUTER;
+                            continue OUTER;
                         }
                     }
                 }
 
-                /*
-                Note that if the last parameter has a @Text annotation, it's type does not necessarily have to
-                be 'String'. The raw string arguments are just joined together and passed into the type converter
-                placed on that @Text annotation parameter.
-                 */
-
-                // constructing the arg from the parameters and its annotations
+                Class<?>[] types = new Class<?>[parameters.length - 1];
+                String[] defaults = new String[parameters.length - 1];
+                String[][] choices = new String[parameters.length - 1][];
                 for (int i = 1; i < parameters.length; i++) {
-                    Parameter parameter = parameters[i];
-
-                    Optional<Converter<?>> converter = typeRegistry.getConverter(parameter.getType());
-                    // make sure that the type on this parameter has a valid converter
-                    if (!converter.isPresent()) {
-                        logger.log(Level.WARNING, "Subcommand not registered. No converter found for parameter " +
-                                "'" + parameter.toString() + "': " + method.toString());
+                    types[i - 1] = parameters[i].getType();
+                    sh.sagan.deimos.command.annotations.Optional optional =
+                            parameters[i].getDeclaredAnnotation(sh.sagan.deimos.command.annotations.Optional.class);
+                    defaults[i - 1] = optional == null ? null : optional.value();
+
+                    Choices choice = parameters[i].getDeclaredAnnotation(Choices.class);
+                    if (choice != null && choice.value().length == 0) {
+                        logger.log(Level.WARNING, "Subcommand not registered. @Choices annotation needs at least " +
+                                "one choice: " + method.toString());
                         continue OUTER;
                     }
+                    choices[i - 1] = choice == null ? null : choice.value();
+                }
 
-                    Arg arg;
-                    if (parameter.isAnnotationPresent(sh.sagan.deimos.command.annotations.Optional.class)) {
-                        arg = new Arg(
-                                parameter.getType(), converter.get(),
-                                Optional.of(parameter.getDeclaredAnnotation(sh.sagan.deimos.command.annotations.Optional.class).value()),
-                                parameter.isAnnotationPresent(Text.class) // a check is made to ensure this only applies to the last arg
-                        );
-                    } else {
-                        arg = new Arg(parameter.getType(), converter.get(),
-                                Optional.empty(), parameter.isAnnotationPresent(Text.class));
-                    }
-                    sub.addArg(arg);
+                // bind the method once here so dispatching never has to go through reflection
+                SubInvoker invoker;
+                try {
+                    invoker = SubInvoker.of(this, method);
+                } catch (IllegalAccessException e) {
+                    logger.log(Level.WARNING, "Subcommand not registered. Method could not be accessed: " + method.toString());
+                    continue;
                 }
-                this.subs.add(sub);
+
+                RateLimiter limiter;
+                try {
+                    limiter = RateLimiter.of(method.getAnnotation(Cooldown.class), method.getAnnotation(RateLimit.class))
+                            .orElse(null);
+                } catch (IllegalArgumentException e) {
+                    logger.log(Level.WARNING, "Subcommand not registered. " + e.getMessage() + ": " + method.toString());
+                    continue;
+                }
+
+                // marked as priority if it has the annotation present on it. Default is false.
+                declarations.add(new SubDeclaration(method.getAnnotation(SubCommand.class).base(),
+                        method.isAnnotationPresent(Priority.class), method.isAnnotationPresent(Async.class), limiter,
+                        types, defaults, choices, textEnding && types.length > 0, invoker, method.toString()));
             }
         }
+
+        return declarations;
     }
 
+    /**
+     * @return The sub commands of this command right now, this list never changes
+     */
     public List<Sub> getSubs() {
-        return subs;
+        return this.subTable.getSubs();
+    }
+
+    public SubTrie getSubTrie() {
+        return this.subTable.getTrie();
+    }
+
+    /**
+     * @return The current snapshot of the sub commands of this command and everything built from them, read this once
+     * and use it throughout to get a consistent view
+     */
+    public SubTable getSubTable() {
+        return subTable;
+    }
+
+    /**
+     * @return The sub commands args of each shape resolved to, for the current trie
+     */
+    public ShapeCache getShapeCache() {
+        return this.subTable.getShapeCache();
+    }
+
+    public Logger getLogger() {
+        return logger;
+    }
+
+    /**
+     * @param scheduler The scheduler @Async sub commands of this command run on
+     */
+    public void setScheduler(DeimosScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * @return The scheduler @Async sub commands of this command run on, null if none was set in which case they run on
+     * the thread that dispatched the command
+     */
+    public DeimosScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * @param metrics Where dispatching this command is recorded
+     */
+    public void setMetrics(DispatchMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return Where dispatching this command is recorded, null if it isn't
+     */
+    public DispatchMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @param recorder Records every dispatch of this command, null to stop recording
+     */
+    public void setRecorder(TraceRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    public TraceRecorder getRecorder() {
+        return recorder;
+    }
+
+    /**
+     * Runs the task on the main thread. This is how an @Async sub command gets back onto the main thread, for example
+     * to use the Bukkit API with the results of its work.
+     *
+     * @param task The task to run
+     */
+    protected void sync(Runnable task) {
+        if (this.scheduler == null) {
+            task.run();
+        } else {
+            this.scheduler.runSync(task);
+        }
+    }
+
+    DeimosExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Called instead of running a sub command when the player ran it (or this command) too often, see @Cooldown and
+     * @RateLimit. Tells the player how long to wait by default.
+     *
+     * @param player The player that was rate limited
+     * @param waitNanos How long until the player can run it again
+     */
+    protected void onRateLimited(Player player, long waitNanos) {
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        player.sendMessage(ChatColor.RED + "You are doing that too often, try again in " + seconds + "s");
+    }
+
+    /**
+     * Takes a permit from the limiter for the player, telling the player to wait if there is none.
+     *
+     * @return Whether the player got a permit
+     */
+    boolean tryAcquire(RateLimiter limiter, Player player) {
+        long wait = limiter.tryAcquire(player.getUniqueId());
+        if (wait == 0) {
+            return true;
+        }
+        this.rateLimited(player, wait);
+        return false;
+    }
+
+    /**
+     * Counts the rejection and tells the player to wait.
+     */
+    void rateLimited(Player player, long waitNanos) {
+        if (this.metrics != null) {
+            this.metrics.recordRateLimited();
+        }
+        this.onRateLimited(player, waitNanos);
+    }
+
+    /**
+     * Called instead of running a sub command when an arg it was matched with could not be resolved by its
+     * {@link AsyncConverter} (there is no value for it). Tells the player by default. This runs on the main thread.
+     *
+     * @param player The player that ran the command
+     * @param label The alias the command was run with
+     * @param arg The raw arg that could not be resolved
+     */
+    protected void onUnresolved(Player player, String label, String arg) {
+        player.sendMessage(ChatColor.RED + "Nothing was found for '" + arg + "'");
+    }
+
+    /**
+     * Called when the args the command was run with matched none of its sub commands. Tells the sender what they might
+     * have meant by default, if anything is close enough.
+     *
+     * @param sender Who ran the command
+     * @param label The alias the command was run with
+     * @param suggestions The args the sender might have meant, closest first, possibly empty
+     * @return Whether the failure was handled, false lets the server send the usage message of the command
+     */
+    protected boolean onUnmatched(CommandSender sender, String label, List<String> suggestions) {
+        if (suggestions.isEmpty()) {
+            return false;
+        }
+        StringBuilder message = new StringBuilder(ChatColor.RED + "Unknown sub command. Did you mean ");
+        for (int i = 0; i < suggestions.size(); i++) {
+            if (i > 0) {
+                message.append(i == suggestions.size() - 1 ? " or " : ", ");
+            }
+            message.append(ChatColor.GRAY).append('/').append(label).append(' ').append(suggestions.get(i))
+                    .append(ChatColor.RED);
+        }
+        sender.sendMessage(message.append('?').toString());
+        return true;
     }
 
     @Override
     public boolean execute(@Nonnull CommandSender sender, @Nonnull String label, @Nonnull String[] args) {
+        // a command wide limit rejects spam before any of the args are tokenized or converted
+        RateLimiter limiter = this.limiter;
+        if (limiter != null && sender instanceof Player && !this.tryAcquire(limiter, (Player) sender)) {
+            return true;
+        }
         return this.executor.onCommand(sender, this, label, args);
     }
 
+    @Nonnull
+    @Override
+    public List<String> tabComplete(@Nonnull CommandSender sender, @Nonnull String alias, @Nonnull String[] args) {
+        return this.subTable.getCompleter().complete(args);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -138,12 +460,52 @@ public class DeimosCommand extends Command {
         return root.equals(command.root);
     }
 
+    @Override
+    public int hashCode() {
+        return root.hashCode();
+    }
+
+    /**
+     * A registered sub command. Subs are frozen when they are created: the params are kept as parallel arrays and
+     * everything the matcher needs to know about them (which are required, how many args are accepted, whether it
+     * ends in a @Text param) is worked out once here instead of on every dispatch.
+     */
     public static class Sub {
-        private final List<Arg> args = new ArrayList<>();
+        // a bit per param in the required mask
+        public static final int MAX_PARAMS = 64;
+
         private final String base;
-        private boolean priority = false;
+        private final boolean priority;
+        private final boolean async;
+        private final RateLimiter limiter;
+        private final SubInvoker invoker;
+
+        private final Class<?>[] types;
+        private final Converter<?>[] converters;
+        private final String[] defaults;
+        private final DeimosExecutor.PassType[] absentPassTypes;
+        private final int[] acceptedClasses;
+        private final int acceptedUnion;
+        private final long requiredMask;
+        private final long asyncMask;
+        private final int requiredCount;
+        private final int maxPossibleArgs;
+        private final boolean textEnding;
+        private final String signature;
+
+        /**
+         * @param base The words the args have to start with, empty for none
+         * @param priority Whether the sub command is tried before the others
+         * @param async Whether the sub command runs off the main thread
+         * @param limiter The limiter of the sub command's @Cooldown or @RateLimit, null if it has neither
+         * @param args The params of the sub command, not counting the player param
+         * @param invoker Calls the sub command method, null if the sub command is never run
+         */
+        public Sub(String base, boolean priority, boolean async, RateLimiter limiter, List<Arg> args, SubInvoker invoker) {
+            if (args.size() > MAX_PARAMS) {
+                throw new IllegalArgumentException("Sub commands can have at most " + MAX_PARAMS + " params");
+            }
 
-        public Sub(String base, boolean priority) {
             String trimmed = base.trim();
             if (base.equals("") || base.isEmpty() || trimmed.isEmpty()) {
                 this.base = null;
@@ -151,47 +513,180 @@ public class DeimosCommand extends Command {
                 this.base = trimmed;
             }
             this.priority = priority;
+            this.async = async;
+            this.limiter = limiter;
+            this.invoker = invoker;
+
+            int size = args.size();
+            this.types = new Class<?>[size];
+            this.converters = new Converter<?>[size];
+            this.defaults = new String[size];
+            this.absentPassTypes = new DeimosExecutor.PassType[size];
+            this.acceptedClasses = new int[size];
+
+            long requiredMask = 0;
+            long asyncMask = 0;
+            int acceptedUnion = 0;
+            for (int i = 0; i < size; i++) {
+                Arg arg = args.get(i);
+                this.types[i] = arg.getType();
+                this.converters[i] = arg.getConverter();
+                this.acceptedClasses[i] = arg.getConverter().acceptedClasses();
+                if (!arg.isText()) {
+                    acceptedUnion |= this.acceptedClasses[i];
+                }
+                this.defaults[i] = arg.getDefault().orElse(null);
+                if (arg.getConverter() instanceof AsyncConverter) {
+                    asyncMask |= 1L << i;
+                }
+                if (arg.isRequired()) {
+                    requiredMask |= 1L << i;
+                } else {
+                    this.absentPassTypes[i] = arg.isOptionalWithNoDefault() ? DeimosExecutor.PassType.PASS_NULL : DeimosExecutor.PassType.PASS_DEFAULT;
+                }
+            }
+            this.requiredMask = requiredMask;
+            this.asyncMask = asyncMask;
+            this.acceptedUnion = acceptedUnion;
+            this.requiredCount = Long.bitCount(requiredMask);
+            this.textEnding = size > 0 && args.get(size - 1).isText();
+            // 500 is the maximum character length a chat message can be in minecraft
+            this.maxPossibleArgs = this.textEnding ? 500 : size;
+
+            StringBuilder signature = new StringBuilder(this.base == null ? "" : this.base);
+            for (int i = 0; i < size; i++) {
+                if (signature.length() > 0) {
+                    signature.append(' ');
+                }
+                signature.append(this.isRequired(i) ? "<" : "[").append(this.types[i].getSimpleName())
+                        .append(this.isRequired(i) ? ">" : "]");
+            }
+            this.signature = signature.toString();
+        }
+
+        public SubInvoker getInvoker() {
+            return invoker;
         }
 
-        public Sub(String base) {
-            this(base, false);
+        public Optional<String> getBase() {
+            return Optional.ofNullable(base);
         }
 
-        public Sub(boolean priority) {
-            this("", priority);
+        public boolean hasPriority() {
+            return priority;
         }
 
-        public Sub() {
-            this("", false);
+        /**
+         * @return Whether this sub command runs off the main thread
+         */
+        public boolean isAsync() {
+            return async;
         }
 
-        public void addArg(Arg arg) {
-            this.args.add(arg);
+        /**
+         * @return The limiter of this sub command's @Cooldown or @RateLimit, empty if it has neither
+         */
+        public Optional<RateLimiter> getLimiter() {
+            return Optional.ofNullable(limiter);
         }
 
-        public List<Arg> getArgs() {
-            return args;
+        /**
+         * @return The base and the params of this sub command, as in "give <Player> <Integer> [String]"
+         */
+        public String getSignature() {
+            return signature;
         }
 
-        public Optional<String> getBase() {
-            return Optional.ofNullable(base);
+        /**
+         * @return The number of params of this sub command, not counting the player param
+         */
+        public int arity() {
+            return this.types.length;
         }
 
-        public boolean hasPriority() {
-            return priority;
+        public Class<?> getType(int index) {
+            return this.types[index];
         }
 
-        public int minPossibleArgs() {
-            return (int) this.args.stream().filter(Arg::isRequired).count();
+        public Converter<?> getConverter(int index) {
+            return this.converters[index];
         }
 
-        public int maxPossibleArgs() {
-            // 500 is the maximum character length a chat message can be in minecraft
-            return this.args.stream().anyMatch(Arg::isText) ? 500 : this.args.size();
+        /**
+         * @return The mask of {@link sh.sagan.deimos.type.TokenClass}es the converter of the param can accept
+         */
+        public int getAcceptedClasses(int index) {
+            return this.acceptedClasses[index];
         }
 
-        public Arg getLastArg() {
-            return this.args.get(this.args.size() - 1);
+        /**
+         * @return The mask of token classes any of the params (other than a @Text param) can accept. A raw arg of any
+         * other class can't be placed anywhere.
+         */
+        public int getAcceptedUnion() {
+            return acceptedUnion;
+        }
+
+        /**
+         * @return The default value of the param as it was given in its @Optional annotation (empty if there was none),
+         * null if the param is required
+         */
+        public String getDefault(int index) {
+            return this.defaults[index];
+        }
+
+        public boolean isRequired(int index) {
+            return (this.requiredMask & (1L << index)) != 0;
+        }
+
+        /**
+         * @return What should be passed to the param when there is no raw arg for it, null if the param is required
+         */
+        public DeimosExecutor.PassType getAbsentPassType(int index) {
+            return this.absentPassTypes[index];
+        }
+
+        /**
+         * @return A mask with the bit of every required param set (bit i is param i)
+         */
+        public long getRequiredMask() {
+            return requiredMask;
+        }
+
+        /**
+         * @param index The index of a param
+         * @return Whether the converter of the param is an {@link AsyncConverter}, its value is resolved off the main
+         * thread before the sub command runs
+         */
+        public boolean isResolvedAsync(int index) {
+            return (this.asyncMask & (1L << index)) != 0;
+        }
+
+        /**
+         * @return Whether any param of this sub command has an {@link AsyncConverter}
+         */
+        public boolean hasAsyncArgs() {
+            return this.asyncMask != 0;
+        }
+
+        public boolean isAllRequired() {
+            return this.requiredCount == this.types.length;
+        }
+
+        public boolean isAllOptional() {
+            return this.requiredCount == 0;
+        }
+
+        public boolean isTextEnding() {
+            return textEnding;
+        }
+
+        public int minPossibleArgs() {
+            return requiredCount;
+        }
+
+        public int maxPossibleArgs() {
+            return maxPossibleArgs;
         }
     }
 
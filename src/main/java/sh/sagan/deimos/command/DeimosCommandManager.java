@@ -1,75 +1,371 @@
 package sh.sagan.deimos.command;
 
-import org.bukkit.Bukkit;
+import org.bukkit.command.Command;
 import org.bukkit.command.CommandMap;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
+import sh.sagan.deimos.metrics.DeimosStatsCommand;
+import sh.sagan.deimos.metrics.DispatchMetrics;
+import sh.sagan.deimos.scheduler.DeimosScheduler;
+import sh.sagan.deimos.server.BukkitDeimosServer;
+import sh.sagan.deimos.server.DeimosServer;
+import sh.sagan.deimos.trace.TraceRecorder;
 import sh.sagan.deimos.type.TypeRegistry;
 
-import java.lang.reflect.Field;
-import java.util.HashSet;
-import java.util.Set;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class DeimosCommandManager {
 
-    private final Set<DeimosCommand> commands = new HashSet<>();
+    // copy on write: replaced as a whole (while holding the lock) so it can be read from any thread without locking
+    private volatile Map<String, DeimosCommand> commands = Collections.emptyMap();
+    private final Object commandsLock = new Object();
 
     private final TypeRegistry typeRegistry;
+    private final DeimosScheduler scheduler;
+    private final DispatchMetrics metrics = new DispatchMetrics();
+    private volatile TraceRecorder recorder;
     private final JavaPlugin plugin;
+    private final DeimosServer server;
     private final CommandMap commandMap;
     private final Logger logger;
 
     public DeimosCommandManager(JavaPlugin plugin) {
+        this(plugin, new BukkitDeimosServer(plugin));
+    }
+
+    /**
+     * Creates a manager for commands on a server other than the one the plugin runs on, such as a
+     * {@link sh.sagan.deimos.harness.LocalServer}.
+     *
+     * @param server The server the commands are registered on
+     */
+    public DeimosCommandManager(DeimosServer server) {
+        this(null, server);
+    }
+
+    private DeimosCommandManager(JavaPlugin plugin, DeimosServer server) {
         this.typeRegistry = new TypeRegistry();
         this.plugin = plugin;
+        this.server = server;
         this.logger = Logger.getLogger(this.getClass().getName());
-        this.commandMap = (CommandMap) this.accessPrivateField(Bukkit.getServer(), "commandMap");
+        this.scheduler = server.getScheduler();
+        this.commandMap = server.getCommandMap().orElse(null);
+
+        server.track(this.typeRegistry.getOnlinePlayers());
     }
 
     public TypeRegistry getTypeRegistry() {
         return typeRegistry;
     }
 
+    public DeimosScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * @return The metrics of dispatching every command registered through this manager
+     */
+    public DispatchMetrics getMetrics() {
+        return metrics;
+    }
+
     public void register(DeimosCommand command) {
-        this.commands.add(command);
+        command.setScheduler(this.scheduler);
+        command.setMetrics(this.metrics);
+        command.setRecorder(this.recorder);
         command.registerSubs(this.logger, this.typeRegistry);
+        this.addCommands(Collections.singletonList(command));
     }
 
-    public void registerAllIntoSpigot() {
-        if (commandMap != null) {
-            for (DeimosCommand command : commands) {
-                commandMap.register(plugin.getName(), command);
+    /**
+     * Registers a command and publishes it into spigot right away, for commands added while the server is running.
+     * Players are sent the new command tree so the command shows up in their client.
+     *
+     * @param command The command to register
+     */
+    public void registerLive(DeimosCommand command) {
+        this.register(command);
+        this.scheduler.runSync(() -> {
+            if (this.commandMap != null) {
+                this.commandMap.register(this.server.getName(), command);
+                this.updateCommands();
+            }
+        });
+    }
+
+    /**
+     * Removes a command from this manager and from spigot (under its name, its aliases and their prefixed forms), no
+     * reload needed. Players are sent the new command tree.
+     *
+     * @param command The command to unregister
+     * @return Whether the command was registered through this manager
+     */
+    public boolean unregister(DeimosCommand command) {
+        synchronized (this.commandsLock) {
+            if (this.commands.get(command.getRoot()) != command) {
+                return false;
+            }
+            Map<String, DeimosCommand> commands = new HashMap<>(this.commands);
+            commands.remove(command.getRoot());
+            this.commands = Collections.unmodifiableMap(commands);
+        }
+        this.metrics.forget(command.getSubs());
+
+        this.scheduler.runSync(() -> {
+            if (this.commandMap != null) {
+                command.unregister(this.commandMap);
+                this.commandMap.getKnownCommands().values().removeIf(known -> known == command);
+                this.updateCommands();
+            }
+        });
+        return true;
+    }
+
+    /**
+     * @param root The root of a command
+     * @return The command registered through this manager with that root
+     */
+    public Optional<DeimosCommand> getCommand(String root) {
+        return Optional.ofNullable(this.commands.get(root));
+    }
+
+    /**
+     * @return The commands registered through this manager right now, this collection never changes
+     */
+    public Collection<DeimosCommand> getCommands() {
+        return this.commands.values();
+    }
+
+    private void addCommands(Collection<DeimosCommand> added) {
+        synchronized (this.commandsLock) {
+            Map<String, DeimosCommand> commands = new HashMap<>(this.commands);
+            for (DeimosCommand command : added) {
+                DeimosCommand replaced = commands.put(command.getRoot(), command);
+                if (replaced != null && replaced != command) {
+                    this.metrics.forget(replaced.getSubs());
+                }
             }
+            this.commands = Collections.unmodifiableMap(commands);
         }
     }
 
-    private Object accessPrivateField(Object instance, String fieldName) {
+    // resends the command tree to every player, for changes made after they joined
+    private void updateCommands() {
+        for (Player player : this.server.getOnlinePlayers()) {
+            player.updateCommands();
+        }
+    }
+
+    /**
+     * Registers many commands at once and publishes them into spigot. Reading the sub commands of each command (and
+     * checking them, binding their invokers and building their tries) is done in parallel on the common fork join
+     * pool, the commands are then registered into the command map together in one step on the main thread. A command
+     * that fails to compile is logged and left out.
+     *
+     * @param commands The commands to register
+     */
+    public void registerAll(Collection<? extends DeimosCommand> commands) {
+        if (commands.isEmpty()) {
+            return;
+        }
 
-        Field field;
+        long start = System.nanoTime();
+        // shared with the rest of the server, the compile tasks are short and nothing of its own is kept alive
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int parallelism = Math.min(commands.size(), pool.getParallelism());
+
+        List<Callable<DeimosCommand>> tasks = new ArrayList<>(commands.size());
+        for (DeimosCommand command : commands) {
+            tasks.add(() -> {
+                long commandStart = System.nanoTime();
+                command.setScheduler(this.scheduler);
+                command.setMetrics(this.metrics);
+                command.setRecorder(this.recorder);
+                command.registerSubs(this.logger, this.typeRegistry);
+                if (this.logger.isLoggable(Level.FINE)) {
+                    this.logger.log(Level.FINE, "Compiled /" + command.getRoot() + " (" + command.getSubs().size() +
+                            " sub commands) in " + millis(System.nanoTime() - commandStart) + "ms");
+                }
+                return command;
+            });
+        }
+
+        List<DeimosCommand> compiled = new ArrayList<>(commands.size());
+        int subs = 0;
         try {
-            field = instance.getClass().getDeclaredField(fieldName);
-        } catch (NoSuchFieldException e) {
-            logger.log(Level.WARNING, "No such field '" + fieldName + "', stacktrace:");
-            e.printStackTrace();
-            return null;
+            // the futures returned by invokeAll are all done, getting them also makes the commands visible here
+            for (Future<DeimosCommand> future : pool.invokeAll(tasks)) {
+                try {
+                    DeimosCommand command = future.get();
+                    compiled.add(command);
+                    subs += command.getSubs().size();
+                } catch (ExecutionException e) {
+                    this.logger.log(Level.WARNING, "Command not registered. Compiling it failed:", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.logger.log(Level.WARNING, "Interrupted while compiling commands, none were registered");
+            return;
         }
+        this.addCommands(compiled);
+        long compileEnd = System.nanoTime();
 
-        Object found;
+        int compiledSubs = subs;
+        this.scheduler.runSync(() -> {
+            long publishStart = System.nanoTime();
+            if (this.commandMap != null) {
+                this.commandMap.registerAll(this.server.getName(), new ArrayList<>(compiled));
+                this.updateCommands();
+            }
+            long end = System.nanoTime();
+            this.logger.log(Level.INFO, "Registered " + compiled.size() + " commands (" + compiledSubs +
+                    " sub commands) in " + millis(end - start) + "ms: compiled in " + millis(compileEnd - start) +
+                    "ms on " + parallelism + " threads, published in " + millis(end - publishStart) + "ms");
+        });
+    }
+
+    /**
+     * Runs many command lines at once, without going through the command map for each of them. The lines are matched
+     * and run on the main thread, grouped by the sub command they match (see {@link CommandBatch}), the results are
+     * in the order of the invocations.
+     *
+     * @param invocations The command lines to run and the players to run them as
+     * @return The result of each invocation, complete once all of them ran
+     */
+    public CompletableFuture<List<InvocationResult>> executeBatch(List<Invocation> invocations) {
+        return this.executeBatch(invocations, invocations.size());
+    }
+
+    /**
+     * Runs many command lines at once like {@link #executeBatch(List)}, spread over as many ticks as it takes to run
+     * at most {@code perTick} of them per tick. The first ones run right away if this is the main thread.
+     *
+     * @param invocations The command lines to run and the players to run them as
+     * @param perTick How many invocations to run per tick at most
+     * @return The result of each invocation, complete once all of them ran
+     */
+    public CompletableFuture<List<InvocationResult>> executeBatch(List<Invocation> invocations, int perTick) {
+        if (perTick < 1) {
+            throw new IllegalArgumentException("Expected at least one invocation per tick");
+        }
+
+        CompletableFuture<List<InvocationResult>> future = new CompletableFuture<>();
+        InvocationResult[] results = new InvocationResult[invocations.size()];
+        List<Invocation> copy = new ArrayList<>(invocations);
+        List<CompletableFuture<Void>> resolving = new ArrayList<>();
+        this.scheduler.runSync(() -> this.executeChunk(copy, 0, perTick, results, resolving, future));
+        return future;
+    }
 
-        field.setAccessible(true);
+    private void executeChunk(List<Invocation> invocations, int from, int perTick, InvocationResult[] results,
+                              List<CompletableFuture<Void>> resolving,
+                              CompletableFuture<List<InvocationResult>> future) {
+        int to = (int) Math.min(invocations.size(), (long) from + perTick);
         try {
-            found = field.get(instance);
-        } catch (IllegalAccessException e) {
-            logger.log(Level.WARNING, "Could not access private field '" + fieldName + "', stacktrace:");
-            e.printStackTrace();
-            return null;
+            // commands are looked up again each tick, they could have been unregistered in between
+            resolving.add(new CommandBatch(this.commands.values(), results).run(invocations, from, to));
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            return;
         }
 
-        return found;
+        if (to < invocations.size()) {
+            this.scheduler.runLater(() -> this.executeChunk(invocations, to, perTick, results, resolving, future), 1);
+        } else {
+            // the invocations resolving their args set their result when they are done
+            CompletableFuture.allOf(resolving.toArray(new CompletableFuture<?>[0])).whenComplete((done, error) ->
+                    future.complete(Collections.unmodifiableList(Arrays.asList(results))));
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f", nanos / 1_000_000.0);
+    }
+
+    /**
+     * Registers /deimos stats, which shows the dispatch metrics of this manager in game. Like any other command it
+     * still has to be registered into spigot afterwards.
+     */
+    public void registerStatsCommand() {
+        this.register(new DeimosStatsCommand(this.metrics));
+    }
+
+    /**
+     * Starts recording every dispatch of the commands registered through this manager (including the ones registered
+     * later) into a trace, see {@link TraceRecorder}. A trace that was already being recorded is stopped.
+     *
+     * @param directory Where the segments of the trace are written
+     * @param segmentBytes The size of a segment
+     * @param maxSegments How many segments are kept at most
+     * @throws IOException If the trace could not be created
+     */
+    public synchronized void startRecording(Path directory, int segmentBytes, int maxSegments) throws IOException {
+        this.stopRecording();
+        this.setRecorder(new TraceRecorder(directory, segmentBytes, maxSegments));
+        this.logger.log(Level.INFO, "Recording dispatches into " + directory);
     }
 
+    /**
+     * Stops recording dispatches, if they were being recorded.
+     */
+    public synchronized void stopRecording() {
+        TraceRecorder recorder = this.recorder;
+        if (recorder != null) {
+            this.setRecorder(null);
+            recorder.close();
+            this.logger.log(Level.INFO, "Stopped recording dispatches, " + recorder.getRecorded() + " recorded and "
+                    + recorder.getDropped() + " dropped");
+        }
+    }
+
+    private void setRecorder(TraceRecorder recorder) {
+        this.recorder = recorder;
+        for (DeimosCommand command : this.commands.values()) {
+            command.setRecorder(recorder);
+        }
+    }
+
+    /**
+     * Stops accepting @Async sub commands and stops recording, this should be called when the plugin is disabled.
+     */
+    public void shutdown() {
+        this.stopRecording();
+        this.scheduler.shutdown();
+    }
+
+    public void registerAllIntoSpigot() {
+        if (commandMap != null) {
+            for (DeimosCommand command : this.commands.values()) {
+                commandMap.register(this.server.getName(), command);
+            }
+        }
+    }
+
+    /**
+     * @return The plugin the commands belong to, null if the manager was created for a server without one
+     */
     public JavaPlugin getPlugin() {
         return plugin;
     }
+
+    public DeimosServer getServer() {
+        return server;
+    }
 }
@@ -1,17 +1,29 @@
 package sh.sagan.deimos.command;
 
 import org.bukkit.command.Command;
+import org.bukkit.command.CommandException;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import sh.sagan.deimos.limit.RateLimiter;
+import sh.sagan.deimos.metrics.DispatchMetrics;
+import sh.sagan.deimos.scheduler.DeimosScheduler;
+import sh.sagan.deimos.trace.TraceRecord;
+import sh.sagan.deimos.trace.TraceRecorder;
+import sh.sagan.deimos.type.AsyncConverter;
+import sh.sagan.deimos.type.Converter;
+import sh.sagan.deimos.type.PrimitiveConverter;
 
 import javax.annotation.Nonnull;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
 
 public class DeimosExecutor implements CommandExecutor {
 
@@ -27,23 +39,147 @@ public class DeimosExecutor implements CommandExecutor {
             return false;
         }
 
-        String joinedArgs = String.join(" ", args);
+        // the phases are only timed while recording
+        TraceRecorder recorder = deimosCommand.getRecorder();
+        long start = recorder == null ? 0 : System.nanoTime();
+
+        // one snapshot for the whole dispatch, sub commands can be added or removed meanwhile
+        SubTable table = deimosCommand.getSubTable();
+        Tokens tokens = new Tokens(args);
+        SubTrie.Node node = table.getTrie().find(tokens);
+
+        // spam is rejected before any of the args are converted if every sub command they could match is limited
+        RateLimiter[] limiters = node.getLimiters();
+        if (limiters != null && limiters.length > 0 && sender instanceof Player) {
+            long wait = wait(limiters, ((Player) sender).getUniqueId());
+            if (wait > 0) {
+                deimosCommand.rateLimited((Player) sender, wait);
+                if (recorder != null) {
+                    trace(recorder, sender, label, args, null, TraceRecord.Outcome.RATE_LIMITED,
+                            System.nanoTime() - start, 0, 0);
+                }
+                return true;
+            }
+        }
+
+        Match match = this.match(table, tokens, node);
+        long matched = recorder == null ? 0 : System.nanoTime();
+        if (match == null) {
+            if (recorder != null) {
+                trace(recorder, sender, label, args, null, TraceRecord.Outcome.UNMATCHED, matched - start, 0, 0);
+            }
+            return this.unmatched(sender, label, args);
+        }
+        if (!(sender instanceof Player)) {
+            if (recorder != null) {
+                trace(recorder, sender, label, args, match, TraceRecord.Outcome.NOT_A_PLAYER, matched - start, 0, 0);
+            }
+            return false;
+        }
+
+        Player player = (Player) sender;
+        // the permit is only taken from the sub command the args matched
+        Optional<RateLimiter> limiter = match.getSub().getLimiter();
+        if (limiter.isPresent() && !deimosCommand.tryAcquire(limiter.get(), player)) {
+            if (recorder != null) {
+                trace(recorder, sender, label, args, match, TraceRecord.Outcome.RATE_LIMITED, matched - start, 0, 0);
+            }
+            return true;
+        }
 
+        Arguments arguments = this.materialize(match);
+        long converted = recorder == null ? 0 : System.nanoTime();
+        if (arguments == null) {
+            if (recorder != null) {
+                trace(recorder, sender, label, args, match, TraceRecord.Outcome.UNMATCHED, matched - start,
+                        converted - matched, 0);
+            }
+            return this.unmatched(sender, label, args);
+        }
+        TraceRecord.Outcome outcome = TraceRecord.Outcome.FAILED;
+        try {
+            if (match.getSub().hasAsyncArgs()) {
+                this.invokeWhenResolved(player, label, match.getSub(), arguments).whenComplete((ignored, error) -> {
+                    // a value that was not found was already told to the player, anything else is logged
+                    if (error != null && error.getCause() != null) {
+                        deimosCommand.getLogger().log(Level.SEVERE, error.getMessage(), error.getCause());
+                    }
+                });
+            } else {
+                this.invoke(player, label, match.getSub(), arguments);
+            }
+            outcome = TraceRecord.Outcome.EXECUTED;
+        } finally {
+            if (recorder != null) {
+                trace(recorder, sender, label, args, match, outcome, matched - start, converted - matched,
+                        System.nanoTime() - converted);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return 0 if one of the limiters has a permit for the player, otherwise how many nanoseconds until the first one
+     * does
+     */
+    private static long wait(RateLimiter[] limiters, UUID player) {
+        long wait = Long.MAX_VALUE;
+        for (RateLimiter limiter : limiters) {
+            wait = Math.min(wait, limiter.peek(player));
+            if (wait == 0) {
+                break;
+            }
+        }
+        return wait;
+    }
+
+    // only worth looking for what was meant when nothing matched
+    private boolean unmatched(CommandSender sender, String label, String[] args) {
+        return deimosCommand.onUnmatched(sender, label, deimosCommand.getSubTable().getSuggester().suggest(args));
+    }
+
+    private static void trace(TraceRecorder recorder, CommandSender sender, String label, String[] args, Match match,
+                              TraceRecord.Outcome outcome, long matchNanos, long convertNanos, long executeNanos) {
+        recorder.record(System.currentTimeMillis(), sender instanceof Player ? ((Player) sender).getUniqueId() : null,
+                label, args, match == null ? null : match.getSub().getSignature(), outcome,
+                matchNanos, convertNanos, executeNanos);
+    }
+
+    /**
+     * Finds the sub command the args are for.
+     *
+     * @param args The raw args, without the root of the command
+     * @return The sub command and how the args are passed to it, null if no sub command accepts the args
+     */
+    Match match(String[] args) {
+        SubTable table = deimosCommand.getSubTable();
+        Tokens tokens = new Tokens(args);
+        return this.match(table, tokens, table.getTrie().find(tokens));
+    }
+
+    /**
+     * @param table The snapshot of the sub commands the whole dispatch uses
+     * @param tokens The raw args, without the root of the command
+     * @param node Where the tokens led to in the trie of the table
+     */
+    private Match match(SubTable table, Tokens tokens, SubTrie.Node node) {
         /*
-        Start first by looking at all the sub commands of this command.
-        If the sub command has a base and it is found to match with the beginning of the joined args then collect it.
-        This allows multiple sub commands to have the same base.
-            - If this list is empty then we need to do an extraneous search by comparing types
-            - If this list contains only 1 sub command then the sub command within can be marked as the correct and can
-                be further processed for which args were passed in if optional or not
-            - If this list contains multiple sub commands then they all need to be extraneously searched as well
+        Start first by walking the args down the sub command trie of this command. This lands on the deepest node whose
+        sub commands have a base that matches the beginning of the args (whole tokens only). This allows multiple sub
+        commands to have the same base.
+            - If that node has sub commands that accept the remaining args then one of them is chosen
+            - Otherwise we fall back to the sub commands with shorter matching bases, and eventually to the sub
+                commands without a base which get the raw args
          */
-        List<DeimosCommand.Sub> potentialSubs = deimosCommand.getSubs().stream().filter(sub ->
-                sub.getBase().isPresent() && joinedArgs.startsWith(sub.getBase().get())).collect(Collectors.toList());
+        DispatchMetrics metrics = deimosCommand.getMetrics();
+        long matchStart = metrics == null ? 0 : System.nanoTime();
+
+        // shared between all the candidates below so that each raw arg is only converted once per type
+        ConversionMemo memo = new ConversionMemo(tokens, metrics);
 
         /*
-        A list containing all the sub commands that match the provided arguments. Realistically this would only contain
-        1 sub command but sometimes two sub commands could match due to Optional args: (ex.)
+        Realistically only 1 sub command of a node would match but sometimes two sub commands could match due to
+        Optional args: (ex.)
             "/cmd this is some text"
         matches to both of these:
             commandA(@Optional(value = "maybe_some_default_value") Player player, String text)
@@ -51,32 +187,331 @@ public class DeimosExecutor implements CommandExecutor {
         this is where the @Priority annotation comes in. If a sub command is marked with this annotation, it will be
         chosen over the other. If no annotation is provided, the first one will be chosen.
          */
+        DeimosCommand.Sub chosen = null;
+        List<PassType> chosenPassTypes = null;
+        int chosenOffset = 0;
+
+        // args of a shape that was already resolved (with deterministic converters only) resolve the same way again
+        ShapeCache shapeCache = table.getShapeCache();
+        ShapeCache.Shape shape = shapeCache.shapeOf(node, memo);
+        ShapeCache.Resolution resolution = shape == null ? null : shapeCache.get(shape);
+        if (resolution != null && resolution.getSub() != null && !accepts(tokens, resolution, memo)) {
+            // a converter claimed to be deterministic and is not, these args are matched the long way instead
+            shapeCache.remove(shape);
+            resolution = null;
+        }
+        if (resolution != null) {
+            chosen = resolution.getSub();
+            chosenPassTypes = resolution.getPassTypes();
+            chosenOffset = resolution.getOffset();
+            node = null;
+        }
+
+        for (; node != null && chosen == null; node = node.getFallback()) {
+            // remove the base of the node's sub commands before processing their args
+            tokens.setOffset(node.getDepth());
 
-        // default processing with raw args, only modify if there are multiple sub commands found with matching bases
-        String[] preprocessedArgs = args;
+            for (DeimosCommand.Sub sub : node.getSubs()) {
+                Optional<List<PassType>> passTypes = hasAcceptAbleArguments(tokens, sub, memo);
+                if (!passTypes.isPresent()) {
+                    continue;
+                }
 
-        if (!potentialSubs.isEmpty()) {
-            if (potentialSubs.size() > 1) {
-                // if there was more than 1 sub command found with the matching base, remove the base and process those
-                preprocessedArgs = joinedArgs.substring(potentialSubs.get(0).getBase().get().length()).split(" ");
+                // the first match is kept unless a later one is marked with @Priority and the current one isn't
+                if (chosen == null || (sub.hasPriority() && !chosen.hasPriority())) {
+                    chosen = sub;
+                    chosenPassTypes = passTypes.get();
+                    chosenOffset = node.getDepth();
+                }
             }
-        } else {
-            // if there were no sub commands found with matching bases then process all remaining commands with raw args
-            potentialSubs = deimosCommand.getSubs();
         }
 
-        if (potentialSubs.isEmpty()) {
-            // program me :)
-        } else if (potentialSubs.size() == 1) {
-            // program me :)
+        if (resolution == null && shape != null && memo.isDeterministic()) {
+            shapeCache.put(shape, new ShapeCache.Resolution(chosen, chosenPassTypes, chosenOffset));
+        }
+
+        if (metrics != null) {
+            metrics.recordMatch(System.nanoTime() - matchStart, chosen != null);
+        }
+
+        if (chosen == null) {
+            return null;
+        }
+
+        tokens.setOffset(chosenOffset);
+        return new Match(chosen, chosenPassTypes, memo);
+    }
+
+    /**
+     * Checks the raw args against the sub command they resolved to before, the same way matching did. The conversions
+     * end up in the memo, so materializing the values afterwards does not convert them again.
+     *
+     * @return Whether every raw arg placed on a param is still accepted by it
+     */
+    private static boolean accepts(Tokens tokens, ShapeCache.Resolution resolution, ConversionMemo memo) {
+        DeimosCommand.Sub sub = resolution.getSub();
+        List<PassType> passTypes = resolution.getPassTypes();
+        tokens.setOffset(resolution.getOffset());
+
+        int rawArgIndex = 0;
+        for (int i = 0; i < sub.arity(); i++) {
+            if (passTypes.get(i) == PassType.PASS_VALUE && !memo.accepts(rawArgIndex++, sub, i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The values the sub command of the match is run with, null if any of them does not convert
+     */
+    Arguments materialize(Match match) {
+        return this.materialize(match.memo, match.sub, match.passTypes);
+    }
+
+    /**
+     * Resolves the values of the params of the sub command that have an {@link AsyncConverter}, all at the same time on
+     * the async scheduler, then runs the sub command on the main thread once every one of them is ready (see
+     * {@link #invoke(Player, String, DeimosCommand.Sub, Arguments)}). The sub command does not run if any of the values
+     * is not found, the command is told with {@link DeimosCommand#onUnresolved(Player, String, String)} instead.
+     *
+     * @param arguments The materialized values, the slots of the async params hold their raw arg (null if absent)
+     * @return Completes once the sub command ran, exceptionally with a {@link CommandException} if a value was not
+     * found (without a cause) or resolving a value or the sub command threw (with what was thrown as the cause)
+     */
+    CompletableFuture<Void> invokeWhenResolved(Player player, String label, DeimosCommand.Sub sub,
+                                               Arguments arguments) {
+        DeimosScheduler scheduler = deimosCommand.getScheduler();
+
+        int[] params = new int[sub.arity()];
+        String[] raws = new String[sub.arity()];
+        int count = 0;
+        for (int i = 0; i < sub.arity(); i++) {
+            if (sub.isResolvedAsync(i) && arguments.get(i) != null) {
+                params[count] = i;
+                raws[count++] = (String) arguments.get(i);
+            }
+        }
+
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[count];
+        for (int k = 0; k < count; k++) {
+            futures[k] = resolve(scheduler, player, (AsyncConverter<?>) sub.getConverter(params[k]), raws[k]);
+        }
+
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        int resolved = count;
+        CompletableFuture.allOf(futures).whenComplete((done, error) -> deimosCommand.sync(() -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                result.completeExceptionally(
+                        new CommandException("Unhandled exception resolving the args of '" + label + "'", cause));
+                return;
+            }
+
+            for (int k = 0; k < resolved; k++) {
+                Optional<?> value = (Optional<?>) futures[k].join();
+                if (value == null || !value.isPresent()) {
+                    deimosCommand.onUnresolved(player, label, raws[k]);
+                    result.completeExceptionally(new CommandException("Nothing was found for '" + raws[k] + "'"));
+                    return;
+                }
+
+                int param = params[k];
+                if (sub.getType(param).isPrimitive()) {
+                    arguments.setBits(param, Arguments.encode(sub.getType(param), value.get()));
+                } else {
+                    arguments.set(param, value.get());
+                }
+            }
+
+            try {
+                this.invoke(player, label, sub, arguments);
+                result.complete(null);
+            } catch (CommandException e) {
+                result.completeExceptionally(e);
+            }
+        }));
+        return result;
+    }
+
+    /**
+     * Starts resolving the raw arg on the async scheduler, or on this thread if there is none.
+     */
+    private static CompletableFuture<Optional<?>> resolve(DeimosScheduler scheduler, Player player,
+                                                          AsyncConverter<?> converter, String raw) {
+        CompletableFuture<Optional<?>> future = new CompletableFuture<>();
+        Runnable start = () -> {
+            try {
+                converter.resolve(player, raw).whenComplete((value, error) -> {
+                    if (error != null) {
+                        future.completeExceptionally(error);
+                    } else {
+                        future.complete(value);
+                    }
+                });
+            } catch (Throwable throwable) {
+                future.completeExceptionally(throwable);
+            }
+        };
+
+        if (scheduler == null) {
+            start.run();
         } else {
-            // program me :)
+            try {
+                scheduler.runAsync(start);
+            } catch (RejectedExecutionException e) {
+                future.completeExceptionally(e);
+            }
+        }
+        return future;
+    }
+
+    /**
+     * Runs the sub command with the values it was matched with, on the async scheduler if it is marked @Async.
+     *
+     * @throws CommandException If the sub command threw, or there is no room for it on the async scheduler
+     */
+    void invoke(Player player, String label, DeimosCommand.Sub sub, Arguments arguments) {
+        SubInvoker invoker = sub.getInvoker();
+        DispatchMetrics metrics = deimosCommand.getMetrics();
+        DeimosScheduler scheduler = deimosCommand.getScheduler();
+
+        if (sub.isAsync() && scheduler != null) {
+            // the args were already converted on this thread, only the sub command itself runs async
+            try {
+                scheduler.runAsync(() -> {
+                    long executeStart = metrics == null ? 0 : System.nanoTime();
+                    try {
+                        invoker.invoke(player, arguments);
+                    } catch (Throwable throwable) {
+                        deimosCommand.getLogger().log(Level.SEVERE, "Unhandled exception executing async sub command of '" + label + "'", throwable);
+                    } finally {
+                        if (metrics != null) {
+                            metrics.recordExecute(deimosCommand, sub, System.nanoTime() - executeStart);
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                throw new CommandException("Too many async sub commands of '" + label + "' waiting to run", e);
+            }
+            return;
         }
 
-        return false;
+        long executeStart = metrics == null ? 0 : System.nanoTime();
+        try {
+            invoker.invoke(player, arguments);
+        } catch (Throwable throwable) {
+            throw new CommandException("Unhandled exception executing sub command of '" + label + "'", throwable);
+        } finally {
+            if (metrics != null) {
+                metrics.recordExecute(deimosCommand, sub, System.nanoTime() - executeStart);
+            }
+        }
     }
 
-    private Optional<List<PassType>> hasAcceptAbleArguments(String[] rawArgs, DeimosCommand.Sub sub) {
+    /**
+     * Converts the raw args into the values that are passed to the sub command, following the pass types found when
+     * matching. Each value lines up with one of the sub command's params (the player param is not included). Params
+     * with a primitive type are parsed straight into their unboxed slot when their converter supports it. Params with
+     * an {@link AsyncConverter} get their raw arg, it is resolved later (see
+     * {@link #invokeWhenResolved(Player, String, DeimosCommand.Sub, Arguments)}).
+     *
+     * @param memo The conversions made while matching, its token view must be over the args the sub command was
+     *             matched against (with its base removed)
+     * @param sub The sub command that was matched
+     * @param passTypes The pass types returned when matching the sub command
+     * @return The converted values, in the order of the sub command's params, null if a raw arg, a default or the
+     * joined args of a @Text param does not convert
+     */
+    private Arguments materialize(ConversionMemo memo, DeimosCommand.Sub sub, List<PassType> passTypes) {
+        Arguments arguments = new Arguments(sub.arity());
+        Tokens tokens = memo.getTokens();
+        int rawArgIndex = 0;
+
+        for (int i = 0; i < sub.arity(); i++) {
+            Converter<?> converter = sub.getConverter(i);
+            PassType passType = passTypes.get(i);
+
+            if (sub.isResolvedAsync(i)) {
+                switch (passType) {
+                    case PASS_VALUE:
+                        arguments.set(i, tokens.get(rawArgIndex++));
+                        break;
+                    case PASS_DEFAULT:
+                        arguments.set(i, sub.getDefault(i));
+                        break;
+                    case PASS_REMAINING:
+                        arguments.set(i, tokens.join(rawArgIndex));
+                        rawArgIndex = tokens.size();
+                        break;
+                    default:
+                        arguments.set(i, null);
+                }
+                continue;
+            }
+
+            if (sub.getType(i).isPrimitive()) {
+                // null can't be passed to a primitive, it is left as 0 (or false)
+                String raw;
+                if (passType == PassType.PASS_VALUE) {
+                    raw = tokens.get(rawArgIndex++);
+                } else if (passType == PassType.PASS_DEFAULT) {
+                    raw = sub.getDefault(i);
+                } else {
+                    continue;
+                }
+
+                if (converter instanceof PrimitiveConverter && ((PrimitiveConverter<?>) converter).accepts(raw)) {
+                    arguments.setBits(i, ((PrimitiveConverter<?>) converter).parseBits(raw));
+                } else {
+                    Optional<?> value = converter.convert(raw);
+                    if (!value.isPresent()) {
+                        return null;
+                    }
+                    arguments.setBits(i, Arguments.encode(sub.getType(i), value.get()));
+                }
+                continue;
+            }
+
+            Optional<?> value;
+            switch (passType) {
+                case PASS_VALUE:
+                    value = memo.convert(rawArgIndex++, converter);
+                    break;
+                case PASS_DEFAULT:
+                    value = converter.convert(sub.getDefault(i));
+                    break;
+                case PASS_REMAINING:
+                    // the joined args of a @Text param are only converted here, never while matching
+                    value = converter.convert(tokens.join(rawArgIndex));
+                    rawArgIndex = tokens.size();
+                    break;
+                default:
+                    arguments.set(i, null);
+                    continue;
+            }
+
+            // a value that does not convert is never passed on as null
+            if (!value.isPresent()) {
+                return null;
+            }
+            arguments.set(i, value.get());
+        }
+
+        return arguments;
+    }
+
+    /**
+     * Checks whether the raw args can be passed to the sub command and works out how: which param gets a raw arg and
+     * which gets its default or null.
+     *
+     * @param rawArgs The raw args (with the base of the sub command removed)
+     * @param sub The sub command to match against
+     * @param memo The conversions already made for this command invocation
+     * @return An optional containing a pass type per param if the raw args could be matched, empty otherwise
+     */
+    public static Optional<List<PassType>> hasAcceptAbleArguments(Tokens rawArgs, DeimosCommand.Sub sub, ConversionMemo memo) {
 
         /*
         A check to handle if the subcommand had no params (just base root invocation) and if there were also no rawArgs
@@ -84,46 +519,33 @@ public class DeimosExecutor implements CommandExecutor {
         list and not just an empty optional because this was a valid command call and we need to indicate that there
         was no argument status to pass in.
          */
-        if (sub.getArgs().isEmpty() && rawArgs.length == 0) {
+        if (sub.arity() == 0 && rawArgs.size() == 0) {
             return Optional.of(new ArrayList<>());
         }
 
         // Too few or too many arguments. This also takes into account possible @Text params
-        if (rawArgs.length > sub.maxPossibleArgs() || rawArgs.length < sub.minPossibleArgs()) {
+        if (rawArgs.size() > sub.maxPossibleArgs() || rawArgs.size() < sub.minPossibleArgs()) {
             return Optional.empty();
         }
 
-        // Could just stream the args and check for allMatch or noneMatch but this preserves the use of an extra loop
-        boolean allRequired = true;
-        boolean allOptional = true;
-        boolean textEnding = sub.getLastArg().isText();
-
-        // if we know that it's a @Text ending then we know the args before it must be required and don't need to check these
-        if (!textEnding) {
-            for (DeimosCommand.Arg arg : sub.getArgs()) {
-                if (!arg.isRequired()) {
-                    allRequired = false;
-                } else if (arg.isRequired()) {
-                    allOptional = false;
-                }
-            }
+        // rule the sub command out by the classes of the raw args before any converter runs
+        if (!isPlausible(rawArgs, sub, memo)) {
+            return Optional.empty();
         }
 
-        if (textEnding) {
+        // which of the cases below applies was worked out when the sub command was registered
+        if (sub.isTextEnding()) {
             /*
             TEXT ENDING
             This case would actually fall into the last "mix" case but to make processing easier and faster, I made it
             a special one to catch it right off the bat and avoid doing some long algorithm to catch it anyway
              */
-            if (!sub.getLastArg().isText()) {
-                return Optional.empty();
-            }
-
-            List<PassType> passTypes = new ArrayList<>();
+            int last = sub.arity() - 1;
+            List<PassType> passTypes = new ArrayList<>(sub.arity());
 
             // make sure all the args before the text match up first
-            for (int i = 0; i < sub.getArgs().size() - 1; i++) {
-                if (!sub.getArgs().get(i).convert(rawArgs[i]).isPresent()) {
+            for (int i = 0; i < last; i++) {
+                if (!memo.accepts(i, sub, i)) {
                     return Optional.empty();
                 } else {
                     passTypes.add(PassType.PASS_VALUE);
@@ -131,46 +553,42 @@ public class DeimosExecutor implements CommandExecutor {
             }
 
             // check for last arg present (assert that it's a @Text param)
-            if (rawArgs.length >= sub.getArgs().size()) {
+            if (rawArgs.size() >= sub.arity()) {
                 passTypes.add(PassType.PASS_REMAINING);
             } else {
-                passTypes.add(sub.getLastArg().isOptionalWithNoDefault() ? PassType.PASS_NULL : PassType.PASS_DEFAULT);
+                passTypes.add(sub.getAbsentPassType(last));
             }
 
             return Optional.of(passTypes);
-        } if (allRequired || rawArgs.length == sub.maxPossibleArgs()) {
+        } if (sub.isAllRequired() || rawArgs.size() == sub.maxPossibleArgs()) {
             /*
             ALL REQUIRED or MAX GIVEN
             This case is a catch for if either all the arguments are required or the maximum arguments were provided. In
             this case we can just do a one for once match. In the case of either, if one of them doesn't match then
             there's no room for shifting or optional passing because the max was given and/or all the args are required.
              */
-            return tryDirectMatch(rawArgs, sub);
-        } else if (allOptional) {
+            return tryDirectMatch(rawArgs, sub, memo);
+        } else if (sub.isAllOptional()) {
             /*
             ALL OPTIONAL
             Currently, because of previous checks, if the command has a @Text ending, the previous arguments MUST be
             required. A more elegant solution is currently being thought of. The possible @Text ending was already accounted
             for in a previous check so we can assume all params here are optional and there is no @Text ending param
              */
-            if (sub.getArgs().stream().anyMatch(DeimosCommand.Arg::isRequired)) {
-                return Optional.empty();
-            }
-
             // first account for if ALL optional args are passed in
-            if (rawArgs.length == sub.getArgs().size()) {
+            if (rawArgs.size() == sub.arity()) {
                 // The max amount of args were passed in so we can check for a 1 to 1 match
-                return tryDirectMatch(rawArgs, sub);
-            } else if (rawArgs.length == 0) {
+                return tryDirectMatch(rawArgs, sub, memo);
+            } else if (rawArgs.size() == 0) {
                 // no args were passed into an all optional subcommand so just need to determine whether to pass null or default
-                List<PassType> passTypes = sub.getArgs().stream()
-                        .map(arg -> arg.isOptionalWithNoDefault() ? PassType.PASS_NULL : PassType.PASS_DEFAULT)
-                        .collect(Collectors.toList());
+                List<PassType> passTypes = new ArrayList<>(sub.arity());
+                for (int i = 0; i < sub.arity(); i++) {
+                    passTypes.add(sub.getAbsentPassType(i));
+                }
                 return Optional.of(passTypes);
             } else {
                 // rawArgs' length was less then the max and more than 0
-                List<DeimosCommand.Arg> mutableArgs = new ArrayList<>(sub.getArgs());
-                List<PassType> possiblePassTypes = new ArrayList<>();
+                List<PassType> possiblePassTypes = new ArrayList<>(sub.arity());
 
                 /*
                 This is a bit troublesome to explain but the basis of this "algorithm" is the fact that the args supplied
@@ -182,47 +600,52 @@ public class DeimosExecutor implements CommandExecutor {
                 until we dont have enough room left to shift (ie.) 3 rawArgs provided to be checked against a subcommand
                 with 5 params, and we have to shift twice and there still isn't match. We can't shift further because
                 after 2 shifts, rawArg 3 would be checked against a non-existent param 6. In this case we know that this
-                sub command did not match.
+                sub command did not match. The shift is how many params were skipped so far: rawArg i is compared to
+                param i + shift.
                  */
                 int checkingArgIndex = 0;
-                while (rawArgs.length <= mutableArgs.size() && checkingArgIndex < rawArgs.length) {
-                    if (mutableArgs.get(checkingArgIndex).convert(rawArgs[checkingArgIndex]).isPresent()) {
+                int shift = 0;
+                while (rawArgs.size() <= sub.arity() - shift && checkingArgIndex < rawArgs.size()) {
+                    int param = checkingArgIndex + shift;
+                    if (memo.accepts(checkingArgIndex, sub, param)) {
                         possiblePassTypes.add(PassType.PASS_VALUE);
                         checkingArgIndex++;
                     } else {
-                        possiblePassTypes.add(mutableArgs.get(checkingArgIndex).isOptionalWithNoDefault() ?
-                                PassType.PASS_NULL : PassType.PASS_DEFAULT);
-                        mutableArgs.remove(checkingArgIndex);
+                        possiblePassTypes.add(sub.getAbsentPassType(param));
+                        shift++;
                     }
                 }
 
+                // if we matched all the args but there are some remaining, pass in null or default
+                for (int param = checkingArgIndex + shift; param < sub.arity(); param++) {
+                    possiblePassTypes.add(sub.getAbsentPassType(param));
+                }
+
                 /*
                 We checked all the args and since the `checkingArgIndex` only increments when there is a match then we
                 can just see if we matched all of them by checking that the `checkingArgIndex` is greater then the last
                 arg's index (equal to the length)
                  */
-                return checkingArgIndex == rawArgs.length ? Optional.of(possiblePassTypes) : Optional.empty();
+                return checkingArgIndex == rawArgs.size() ? Optional.of(possiblePassTypes) : Optional.empty();
             }
         } else {
             // MIX
 
-            List<PassType> passTypes = new ArrayList<>();
-            int requiredArgsCount = (int) sub.getArgs().stream().filter(DeimosCommand.Arg::isRequired).count();
-
             /*
             We can first check for the optimal situation: there was as many args provided by the player as there were
             required params in the command (all optionals were omitted).
              */
-            if (rawArgs.length == requiredArgsCount) {
+            if (rawArgs.size() == sub.minPossibleArgs()) {
+                List<PassType> passTypes = new ArrayList<>(sub.arity());
                 int rawArgCheckIndex = 0;
-                for (DeimosCommand.Arg arg : sub.getArgs()) {
-                    if (!arg.isRequired()) {
-                        passTypes.add(arg.isOptionalWithNoDefault() ? PassType.PASS_NULL : PassType.PASS_DEFAULT);
+                for (int i = 0; i < sub.arity(); i++) {
+                    if (!sub.isRequired(i)) {
+                        passTypes.add(sub.getAbsentPassType(i));
                         continue;
                     }
 
                     // if even one doesn't match then cancel
-                    if (!arg.convert(rawArgs[rawArgCheckIndex]).isPresent()) {
+                    if (!memo.accepts(rawArgCheckIndex, sub, i)) {
                         return Optional.empty();
                     } else {
                         passTypes.add(PassType.PASS_VALUE);
@@ -239,74 +662,34 @@ public class DeimosExecutor implements CommandExecutor {
                 - There are no @Text arguments
                 - There were more arguments provided than the minimum but also less than the maximum
 
-            For now, this current algorithm will just brute force it's way along the subcommand's arguments until a
-            full match is found where all the arguments match and all the required arguments are filled.
+            Which raw arg goes to which param is decided by the MixMatcher in O(raw args * params) instead of trying
+            every combination of placements.
              */
+            return MixMatcher.match(rawArgs, sub, memo);
+        }
+    }
 
-            // index is arg, value is place of that arg
-            int[] placements = IntStream.range(0, rawArgs.length).toArray();
-            int intoArrSize = sub.getArgs().size();
-
-            OUTER:
-            while (placements[0] < (intoArrSize - placements.length)) {
-                int argToShift = 0;
-                for (int i = 0; i < placements.length; i++) {
-                    int checkingArg = placements.length - 1 - i;
-                    if (placements[checkingArg] < intoArrSize - 1 - i) {
-                        argToShift = checkingArg;
-                        break;
-                    }
-                }
-
-                placements[argToShift] += 1;
-                for (int i = (argToShift + 1); i < placements.length; i++) {
-                    placements[i] = placements[argToShift] + (i - argToShift);
-                }
-
-                /*
-                Check to make sure placements contain all
-
-                Because we know there are some required args. We first need to check that there are placements for the
-                required args of the sub command.
-                 */
-                for (int placement : placements) {
-                    boolean match = false;
-                    for (int j = 0; j < sub.getArgs().size(); j++) {
-                        if (!sub.getArgs().get(j).isRequired()) continue;
-                        if (j == placement) {
-                            match = true;
-                            break;
-                        }
-                    }
-                    if (!match) {
-                        continue OUTER;
-                    }
-                }
-
-                int placementCheck = 0;
-                for (int i = 0; i < sub.getArgs().size(); i++) {
-
-                    DeimosCommand.Arg arg = sub.getArgs().get(i);
-
-                    // if there should be a check for type here
-                    if (i == placements[placementCheck]) {
-                        if (!arg.convert(rawArgs[i]).isPresent()) {
-                            continue OUTER;
-                        } else {
-                            passTypes.add(PassType.PASS_VALUE);
-                        }
-                    } else {
-                        // otherwise pass default or null
-                        passTypes.add(arg.isOptionalWithNoDefault() ? PassType.PASS_NULL : PassType.PASS_DEFAULT);
-                    }
-                }
-
-                // if there was an issue in the matching, then continue OUTER loop otherwise return the passtypes
-                return Optional.of(passTypes);
+    /**
+     * A quick check of the raw args against the {@link sh.sagan.deimos.type.TokenClass}es the params of the sub command
+     * can accept, made with bitwise ANDs on the classes the {@link ConversionMemo} worked out once per invocation. Raw
+     * args that can only land on one param (all the params are required, as many raw args as params were given, or
+     * they come before a @Text param) have to be of a class that param accepts. Any other raw arg has to be of a class
+     * at least one of the params accepts.
+     *
+     * @return False if the raw args certainly can't be passed to the sub command
+     */
+    private static boolean isPlausible(Tokens rawArgs, DeimosCommand.Sub sub, ConversionMemo memo) {
+        boolean positional = sub.isTextEnding() || sub.isAllRequired() || rawArgs.size() == sub.arity();
+        // the raw args making up the @Text param are never checked
+        int checked = sub.isTextEnding() ? Math.min(rawArgs.size(), sub.arity() - 1) : rawArgs.size();
+
+        for (int i = 0; i < checked; i++) {
+            int accepted = positional ? sub.getAcceptedClasses(i) : sub.getAcceptedUnion();
+            if ((memo.classBit(i) & accepted) == 0) {
+                return false;
             }
         }
-
-        return Optional.empty();
+        return true;
     }
 
     /**
@@ -318,23 +701,48 @@ public class DeimosExecutor implements CommandExecutor {
      * @param rawArgs The raw string arguments passed in by the player (can have minimal preprocessing (ie.) removing
      *                bases of subcommands)
      * @param sub The subcommand you're trying to match to
+     * @param memo The conversions already made for this command invocation
      * @return An optional contain a list of pass types if the match was successful or empty if unsuccessful
      */
-    private Optional<List<PassType>> tryDirectMatch(String[] rawArgs, DeimosCommand.Sub sub) {
+    private static Optional<List<PassType>> tryDirectMatch(Tokens rawArgs, DeimosCommand.Sub sub, ConversionMemo memo) {
 
         // have to be the same length
-        if (rawArgs.length != sub.getArgs().size()) {
+        if (rawArgs.size() != sub.arity()) {
             return Optional.empty();
         }
 
-        for (int i = 0; i < sub.getArgs().size(); i++) {
+        for (int i = 0; i < sub.arity(); i++) {
             // if there's at least one that doesn't match
-            if (!sub.getArgs().get(i).convert(rawArgs[i]).isPresent()) {
+            if (!memo.accepts(i, sub, i)) {
                 return Optional.empty();
             }
         }
 
-        return Optional.of(Collections.nCopies(rawArgs.length, PassType.PASS_VALUE));
+        return Optional.of(Collections.nCopies(rawArgs.size(), PassType.PASS_VALUE));
+    }
+
+    /**
+     * A sub command the args were matched with. The token view of the memo is over the args the sub command gets (with
+     * its base removed).
+     */
+    static final class Match {
+        private final DeimosCommand.Sub sub;
+        private final List<PassType> passTypes;
+        private final ConversionMemo memo;
+
+        private Match(DeimosCommand.Sub sub, List<PassType> passTypes, ConversionMemo memo) {
+            this.sub = sub;
+            this.passTypes = passTypes;
+            this.memo = memo;
+        }
+
+        DeimosCommand.Sub getSub() {
+            return sub;
+        }
+
+        ConversionMemo getMemo() {
+            return memo;
+        }
     }
 
     public enum PassType {
@@ -0,0 +1,37 @@
+package sh.sagan.deimos.command;
+
+import org.bukkit.entity.Player;
+
+/**
+ * A command line to run as a player, for {@link DeimosCommandManager#executeBatch(java.util.List)}.
+ */
+public final class Invocation {
+
+    private final Player player;
+    private final String line;
+
+    /**
+     * @param player The player the sub command runs as
+     * @param line The command line, the root of the command followed by its args (with or without the leading slash)
+     */
+    public Invocation(Player player, String line) {
+        this.player = player;
+        this.line = line.startsWith("/") ? line.substring(1) : line;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * @return The command line, without a leading slash
+     */
+    public String getLine() {
+        return line;
+    }
+
+    @Override
+    public String toString() {
+        return "/" + this.line + " as " + this.player.getName();
+    }
+}
@@ -0,0 +1,62 @@
+package sh.sagan.deimos.command;
+
+import java.util.Optional;
+
+/**
+ * What happened to an {@link Invocation} of a batch.
+ */
+public final class InvocationResult {
+
+    public enum Status {
+        /**
+         * The sub command ran, or was handed to the async scheduler if it is marked @Async
+         */
+        EXECUTED,
+        /**
+         * No command registered through the manager has the root (or an alias) the line starts with
+         */
+        UNKNOWN_COMMAND,
+        /**
+         * No sub command of the command accepts the args
+         */
+        NO_MATCH,
+        /**
+         * The sub command threw, or there was no room for it on the async scheduler
+         */
+        FAILED
+    }
+
+    private final Invocation invocation;
+    private final Status status;
+    private final Throwable error;
+
+    InvocationResult(Invocation invocation, Status status, Throwable error) {
+        this.invocation = invocation;
+        this.status = status;
+        this.error = error;
+    }
+
+    public Invocation getInvocation() {
+        return invocation;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isExecuted() {
+        return this.status == Status.EXECUTED;
+    }
+
+    /**
+     * @return What the sub command threw if it failed
+     */
+    public Optional<Throwable> getError() {
+        return Optional.ofNullable(error);
+    }
+
+    @Override
+    public String toString() {
+        return this.invocation + ": " + this.status + (this.error == null ? "" : " (" + this.error + ")");
+    }
+}
@@ -0,0 +1,78 @@
+package sh.sagan.deimos.command;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Matches raw args against a sub command with a mix of required and optional params (and no @Text param).
+ *
+ * The raw args are always in the same order as the params they belong to, a player can only leave optional params
+ * out. So a match is an assignment of each raw arg to a param, in order, where every required param gets a raw arg and
+ * every raw arg is accepted by the converter of its param. Instead of trying every combination of placements, this
+ * fills a table of which suffixes of the raw args can still be matched against which suffixes of the params:
+ *
+ *     matchable[i][j] = rawArgs i.. can be matched against params j..
+ *                     = (param j is optional AND matchable[i][j + 1])
+ *                       OR (raw arg i is accepted by param j AND matchable[i + 1][j + 1])
+ *
+ * which takes O(raw args * params) steps, each conversion going through the {@link ConversionMemo}. The assignment is
+ * then read back from the front of the table, giving a raw arg to the earliest param that can take it.
+ */
+public final class MixMatcher {
+
+    private MixMatcher() {
+    }
+
+    /**
+     * @param rawArgs The raw args to match (with the base of the sub command removed)
+     * @param sub The sub command to match against, it should have no @Text param
+     * @param memo The conversions already made for this command invocation
+     * @return An optional containing a pass type per param if the raw args could be matched, empty otherwise
+     */
+    public static Optional<List<DeimosExecutor.PassType>> match(Tokens rawArgs, DeimosCommand.Sub sub, ConversionMemo memo) {
+        int rawCount = rawArgs.size();
+        int argCount = sub.arity();
+
+        if (rawCount > argCount) {
+            return Optional.empty();
+        }
+
+        // one row per raw arg (plus the empty suffix), one column per param (plus the empty suffix)
+        int width = argCount + 1;
+        boolean[] matchable = new boolean[(rawCount + 1) * width];
+
+        // no raw args left: only matchable if every param left is optional
+        matchable[rawCount * width + argCount] = true;
+        for (int j = argCount - 1; j >= 0; j--) {
+            matchable[rawCount * width + j] = !sub.isRequired(j) && matchable[rawCount * width + j + 1];
+        }
+
+        // raw args left but no params left is never matchable, so the last column stays false
+        for (int i = rawCount - 1; i >= 0; i--) {
+            // there have to be at least as many params left as raw args
+            for (int j = argCount - (rawCount - i); j >= 0; j--) {
+                matchable[i * width + j] = (!sub.isRequired(j) && matchable[i * width + j + 1])
+                        || (matchable[(i + 1) * width + j + 1] && memo.accepts(i, sub, j));
+            }
+        }
+
+        if (!matchable[0]) {
+            return Optional.empty();
+        }
+
+        List<DeimosExecutor.PassType> passTypes = new ArrayList<>(argCount);
+        int i = 0;
+        for (int j = 0; j < argCount; j++) {
+            // give the raw arg to this param if the rest can still be matched, conversions here are already memoized
+            if (i < rawCount && matchable[(i + 1) * width + j + 1] && memo.accepts(i, sub, j)) {
+                passTypes.add(DeimosExecutor.PassType.PASS_VALUE);
+                i++;
+            } else {
+                passTypes.add(sub.getAbsentPassType(j));
+            }
+        }
+
+        return Optional.of(passTypes);
+    }
+}
@@ -0,0 +1,178 @@
+package sh.sagan.deimos.command;
+
+import sh.sagan.deimos.type.Converter;
+import sh.sagan.deimos.type.TokenClass;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Remembers which sub command the args of a command resolved to, by the shape of the args: the trie node their base
+ * led to, how many there were, the {@link TokenClass} of each one and whether each one is accepted by the converters
+ * of the node that accept names by value (enums, @Choices, see {@link SubTrie.Node#getKeyedConverters()}). "/shop buy
+ * 64" and "/shop buy 32" have the same shape, and so do "/mode set creative" and "/mode set survival" but not "/mode
+ * set nope", so once the first one was matched the second one can skip straight to converting its args.
+ *
+ * This is only correct if matching the args would come to the same result for every args of the same shape, which is
+ * the case when every converter checked while matching them is either {@link Converter#isStateless() stateless} or
+ * keyed into the shape, that is {@link Converter#isDeterministic() deterministic}. Resolutions that checked any other
+ * converter are never stored. The cache belongs to one trie and is thrown away with it when the sub commands change.
+ *
+ * The cache is a fixed size table with one resolution per slot, picked by the hash of the shape. A shape hashing to a
+ * slot that is taken replaces what was there, so the cache never grows and nothing has to be evicted. The slots are
+ * read and written without any locking: an entry never changes once it is created (its fields are all final, which
+ * makes it safe to publish through a race), so a dispatch sees either the entry or what was in the slot before it and
+ * at worst resolves its args the long way. Concurrent dispatches never wait on each other here.
+ */
+public final class ShapeCache {
+
+    // 3 bits per token class in a long
+    public static final int MAX_TOKENS = 21;
+    // a bit per raw arg and keyed converter in a long
+    private static final int MAX_KEYED_BITS = 64;
+    // a power of two
+    private static final int SIZE = 1024;
+
+    private final Entry[] entries = new Entry[SIZE];
+
+    /**
+     * @param node The node the args led to in the trie
+     * @param memo The memo of the invocation, its token view has to be over all the raw args
+     * @return The shape of the args, null if there are too many args (for the keyed converters) to have one
+     */
+    public Shape shapeOf(SubTrie.Node node, ConversionMemo memo) {
+        int count = memo.getTokens().size();
+        Converter<?>[] keyed = node.getKeyedConverters();
+        if (count > MAX_TOKENS || count * keyed.length > MAX_KEYED_BITS) {
+            return null;
+        }
+
+        long classes = 0;
+        for (int i = 0; i < count; i++) {
+            classes = (classes << 3) | Integer.numberOfTrailingZeros(memo.classBit(i));
+        }
+        // checked through the memo, matching gets these conversions for free
+        long accepted = 0;
+        for (Converter<?> converter : keyed) {
+            for (int i = 0; i < count; i++) {
+                accepted = (accepted << 1) | (memo.accepts(i, converter) ? 1 : 0);
+            }
+        }
+        return new Shape(node, count, classes, accepted);
+    }
+
+    /**
+     * @return What args of the shape resolved to before, null if they haven't been resolved yet
+     */
+    public Resolution get(Shape shape) {
+        Entry entry = this.entries[slot(shape)];
+        return entry != null && entry.shape.equals(shape) ? entry.resolution : null;
+    }
+
+    public void put(Shape shape, Resolution resolution) {
+        this.entries[slot(shape)] = new Entry(shape, resolution);
+    }
+
+    public void remove(Shape shape) {
+        int slot = slot(shape);
+        Entry entry = this.entries[slot];
+        if (entry != null && entry.shape.equals(shape)) {
+            this.entries[slot] = null;
+        }
+    }
+
+    /**
+     * @return The number of shapes in the cache, this walks the whole table
+     */
+    public int size() {
+        int size = 0;
+        for (Entry entry : this.entries) {
+            if (entry != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    private static int slot(Shape shape) {
+        int hash = shape.hashCode();
+        return (hash ^ (hash >>> 16)) & (SIZE - 1);
+    }
+
+    private static final class Entry {
+        private final Shape shape;
+        private final Resolution resolution;
+
+        private Entry(Shape shape, Resolution resolution) {
+            this.shape = shape;
+            this.resolution = resolution;
+        }
+    }
+
+    public static final class Shape {
+        private final SubTrie.Node node;
+        private final int count;
+        private final long classes;
+        private final long accepted;
+        private final int hash;
+
+        private Shape(SubTrie.Node node, int count, long classes, long accepted) {
+            this.node = node;
+            this.count = count;
+            this.classes = classes;
+            this.accepted = accepted;
+
+            int hash = System.identityHashCode(node);
+            hash = 31 * hash + count;
+            hash = 31 * hash + Long.hashCode(classes);
+            this.hash = 31 * hash + Long.hashCode(accepted);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Shape shape = (Shape) o;
+            return hash == shape.hash && node == shape.node && count == shape.count && classes == shape.classes
+                    && accepted == shape.accepted;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * The sub command args resolved to (or none), with what matching it returned.
+     */
+    public static final class Resolution {
+        private final DeimosCommand.Sub sub;
+        private final List<DeimosExecutor.PassType> passTypes;
+        private final int offset;
+
+        public Resolution(DeimosCommand.Sub sub, List<DeimosExecutor.PassType> passTypes, int offset) {
+            this.sub = sub;
+            this.passTypes = passTypes == null ? null : Collections.unmodifiableList(passTypes);
+            this.offset = offset;
+        }
+
+        /**
+         * @return The sub command that was chosen, null if no sub command accepted the args
+         */
+        public DeimosCommand.Sub getSub() {
+            return sub;
+        }
+
+        public List<DeimosExecutor.PassType> getPassTypes() {
+            return passTypes;
+        }
+
+        /**
+         * @return The number of tokens the base of the sub command took up
+         */
+        public int getOffset() {
+            return offset;
+        }
+    }
+}
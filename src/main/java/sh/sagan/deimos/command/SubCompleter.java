@@ -0,0 +1,151 @@
+package sh.sagan.deimos.command;
+
+import sh.sagan.deimos.type.Completer;
+import sh.sagan.deimos.type.Converter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Tab completes the sub commands of a command. Every token but the last one has been typed in full and is walked down
+ * the {@link SubTrie} the same way dispatching does, the last one is the prefix being completed:
+ *
+ *     - if the full tokens are the start of a base, the next words of the bases starting with the prefix are
+ *       suggested, looked up in the sorted index of the trie node
+ *     - for every sub command whose base was fully typed, the params the prefix could be a raw arg of are completed by
+ *       their converter if it is a {@link Completer}
+ *
+ * Completions of a param are cached per (sub command, param, prefix) in a small LRU cache, unless the completer says
+ * its completions change over time.
+ */
+public final class SubCompleter {
+
+    private static final int CACHE_SIZE = 256;
+
+    private final SubTrie subTrie;
+    private final Map<Key, List<String>> cache = Collections.synchronizedMap(
+            new LinkedHashMap<Key, List<String>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, List<String>> eldest) {
+                    return this.size() > CACHE_SIZE;
+                }
+            });
+
+    public SubCompleter(SubTrie subTrie) {
+        this.subTrie = subTrie;
+    }
+
+    /**
+     * @param args The raw args typed so far, the last one is the one being completed (possibly empty)
+     * @return The suggestions for the last arg
+     */
+    public List<String> complete(String[] args) {
+        if (args.length == 0) {
+            return Collections.emptyList();
+        }
+
+        int last = args.length - 1;
+        String prefix = args[last];
+        Tokens typed = new Tokens(Arrays.copyOf(args, last));
+        Set<String> suggestions = new LinkedHashSet<>();
+
+        // the next word of a base
+        SubTrie.Node node = this.subTrie.getRoot();
+        for (int i = 0; i < typed.size() && node != null; i++) {
+            node = node.getChild(typed.get(i));
+        }
+        if (node != null) {
+            suggestions.addAll(node.completeChild(prefix));
+        }
+
+        // a raw arg of a sub command whose base has been typed
+        for (node = this.subTrie.find(typed); node != null; node = node.getFallback()) {
+            for (DeimosCommand.Sub sub : node.getSubs()) {
+                this.completeArg(sub, last - node.getDepth(), prefix, suggestions);
+            }
+        }
+
+        return new ArrayList<>(suggestions);
+    }
+
+    private void completeArg(DeimosCommand.Sub sub, int position, String prefix, Set<String> suggestions) {
+        int arity = sub.arity();
+        if (position < 0 || arity == 0) {
+            return;
+        }
+
+        if (sub.isTextEnding()) {
+            // only the first word of a @Text param is completed, everything after it is free text
+            if (position == arity - 1) {
+                this.completeParam(sub, position, prefix, suggestions);
+            }
+            if (position >= arity - 1) {
+                return;
+            }
+        }
+
+        /*
+        The raw arg at the position lands on param j if exactly (j - position) of the params before j were left out,
+        which is only possible while there are no more than 'position' required params before j.
+         */
+        for (int j = position; j < arity; j++) {
+            if (Long.bitCount(sub.getRequiredMask() & ((1L << j) - 1)) > position) {
+                break;
+            }
+            this.completeParam(sub, j, prefix, suggestions);
+        }
+    }
+
+    private void completeParam(DeimosCommand.Sub sub, int index, String prefix, Set<String> suggestions) {
+        Converter<?> converter = sub.getConverter(index);
+        if (!(converter instanceof Completer)) {
+            return;
+        }
+
+        Completer completer = (Completer) converter;
+        if (!completer.isCacheable()) {
+            suggestions.addAll(completer.complete(prefix));
+            return;
+        }
+
+        Key key = new Key(sub, index, prefix);
+        List<String> completions = this.cache.get(key);
+        if (completions == null) {
+            completions = Collections.unmodifiableList(new ArrayList<>(completer.complete(prefix)));
+            this.cache.put(key, completions);
+        }
+        suggestions.addAll(completions);
+    }
+
+    private static final class Key {
+        private final DeimosCommand.Sub sub;
+        private final int index;
+        private final String prefix;
+
+        private Key(DeimosCommand.Sub sub, int index, String prefix) {
+            this.sub = sub;
+            this.index = index;
+            this.prefix = prefix;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return sub == key.sub && index == key.index && prefix.equals(key.prefix);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(sub), index, prefix);
+        }
+    }
+}
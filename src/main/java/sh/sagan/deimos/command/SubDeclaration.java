@@ -0,0 +1,103 @@
+package sh.sagan.deimos.command;
+
+import sh.sagan.deimos.limit.RateLimiter;
+
+import java.util.Optional;
+
+/**
+ * A sub command as it is declared on its method, before the converters of its params are looked up. Declarations
+ * either come from reading the annotations of the method at runtime or from the registration class generated for the
+ * command at compile time (see {@link SubRegistration}).
+ */
+public final class SubDeclaration {
+
+    private final String base;
+    private final boolean priority;
+    private final boolean async;
+    private final RateLimiter limiter;
+    private final Class<?>[] types;
+    private final String[] defaults;
+    private final String[][] choices;
+    private final boolean textEnding;
+    private final SubInvoker invoker;
+    private final String source;
+
+    /**
+     * @param base The base of the sub command, as given in its @SubCommand annotation
+     * @param priority Whether the method has a @Priority annotation
+     * @param async Whether the method has an @Async annotation
+     * @param limiter The limiter of the method's @Cooldown or @RateLimit annotation, null if it has neither
+     * @param types The types of the params, not counting the player param
+     * @param defaults The value of the @Optional annotation of each param, null for required params
+     * @param choices The value of the @Choices annotation of each param, null for params without one
+     * @param textEnding Whether the last param has a @Text annotation
+     * @param invoker Calls the method
+     * @param source A description of the method for log messages
+     */
+    public SubDeclaration(String base, boolean priority, boolean async, RateLimiter limiter, Class<?>[] types,
+                          String[] defaults, String[][] choices, boolean textEnding, SubInvoker invoker, String source) {
+        if (types.length != defaults.length || types.length != choices.length) {
+            throw new IllegalArgumentException("Expected a default and choices per param: " + source);
+        }
+        this.base = base;
+        this.priority = priority;
+        this.async = async;
+        this.limiter = limiter;
+        this.types = types;
+        this.defaults = defaults;
+        this.choices = choices;
+        this.textEnding = textEnding;
+        this.invoker = invoker;
+        this.source = source;
+    }
+
+    public String getBase() {
+        return base;
+    }
+
+    public boolean hasPriority() {
+        return priority;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public Optional<RateLimiter> getLimiter() {
+        return Optional.ofNullable(limiter);
+    }
+
+    public int arity() {
+        return this.types.length;
+    }
+
+    public Class<?> getType(int index) {
+        return this.types[index];
+    }
+
+    /**
+     * @return The value of the @Optional annotation of the param, null if the param is required
+     */
+    public String getDefault(int index) {
+        return this.defaults[index];
+    }
+
+    /**
+     * @return The value of the @Choices annotation of the param, null if the param has none
+     */
+    public String[] getChoices(int index) {
+        return this.choices[index];
+    }
+
+    public boolean isTextEnding() {
+        return textEnding;
+    }
+
+    public SubInvoker getInvoker() {
+        return invoker;
+    }
+
+    public String getSource() {
+        return source;
+    }
+}
@@ -0,0 +1,90 @@
+package sh.sagan.deimos.command;
+
+import org.bukkit.entity.Player;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * A pre-bound invocation path to the method backing a {@link DeimosCommand.Sub}. Invokers are created once when the
+ * sub command is registered so that dispatching a command never goes through {@link Method#invoke(Object, Object...)}
+ * and never pays for its access checks, argument array copying or boxing of primitive params.
+ */
+@FunctionalInterface
+public interface SubInvoker {
+
+    /**
+     * Invokes the sub command.
+     *
+     * @param player The player that ran the command, passed as the first parameter of the method
+     * @param args The already converted arguments, one slot per parameter after the player (in declaration order)
+     * @throws Throwable Anything thrown by the sub command method itself
+     */
+    void invoke(Player player, Arguments args) throws Throwable;
+
+    /**
+     * Creates an invoker for the given sub command method bound to the instance it is declared on. The method is
+     * unreflected into a {@link MethodHandle} which is bound to the target, and every parameter after the player is
+     * filtered to read its slot of the {@link Arguments}: primitive parameters read their unboxed slot, any other
+     * parameter reads its object slot cast to the parameter type. Any return value of the method is dropped. The
+     * invoker keeps the adapted handle in a final field (a LambdaMetafactory lambda can only call a method directly,
+     * not through the adaptations, and sub command methods are usually private to their command).
+     *
+     * @param target The command instance the method belongs to
+     * @param method The sub command method, its first parameter must be a {@link Player}
+     * @return An invoker that calls the method on the target
+     * @throws IllegalAccessException If the method could not be made accessible
+     */
+    static SubInvoker of(Object target, Method method) throws IllegalAccessException {
+        method.setAccessible(true);
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle handle = lookup.unreflect(method).bindTo(target);
+        Class<?>[] types = method.getParameterTypes();
+        int arity = types.length - 1;
+
+        // (Player, A, B, ...)R -> (Player, Arguments, Arguments, ...)R
+        MethodHandle[] getters = new MethodHandle[arity];
+        for (int i = 0; i < arity; i++) {
+            getters[i] = MethodHandles.insertArguments(getter(lookup, types[i + 1]), 1, i)
+                    .asType(MethodType.methodType(types[i + 1], Arguments.class));
+        }
+        MethodHandle filtered = MethodHandles.filterArguments(handle, 1, getters);
+
+        // (Player, Arguments, Arguments, ...)R -> (Player, Arguments)void
+        int[] reorder = new int[arity + 1];
+        for (int i = 1; i < reorder.length; i++) {
+            reorder[i] = 1;
+        }
+        MethodHandle spread = MethodHandles.permuteArguments(filtered,
+                MethodType.methodType(handle.type().returnType(), Player.class, Arguments.class), reorder)
+                .asType(MethodType.methodType(void.class, Player.class, Arguments.class));
+
+        return (player, args) -> {
+            spread.invokeExact(player, args);
+        };
+    }
+
+    /**
+     * @return A handle reading a slot of the {@link Arguments} as the given param type: (Arguments, int)type
+     */
+    static MethodHandle getter(MethodHandles.Lookup lookup, Class<?> type) throws IllegalAccessException {
+        String name;
+        if (!type.isPrimitive()) {
+            name = "get";
+            type = Object.class;
+        } else {
+            // getInt, getLong, getBoolean, ...
+            String simple = type.getName();
+            name = "get" + Character.toUpperCase(simple.charAt(0)) + simple.substring(1);
+        }
+
+        try {
+            return lookup.findVirtual(Arguments.class, name, MethodType.methodType(type, int.class));
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("Unsupported parameter type: " + type, e);
+        }
+    }
+}
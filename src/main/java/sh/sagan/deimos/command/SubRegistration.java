@@ -0,0 +1,24 @@
+package sh.sagan.deimos.command;
+
+import java.util.List;
+
+/**
+ * Declares the sub commands of a command without reflection. The annotation processor generates an implementation
+ * named {@code <Command>_DeimosRegistration} next to every command class it checked, its invokers call the sub
+ * command methods directly.
+ *
+ * @param <C> The command the sub commands are declared on
+ */
+public interface SubRegistration<C extends DeimosCommand> {
+
+    /**
+     * The suffix added to the binary name of a command class to get the name of its generated registration class.
+     */
+    String SUFFIX = "_DeimosRegistration";
+
+    /**
+     * @param command The command to bind the invokers to
+     * @return The sub commands of the command, in declaration order
+     */
+    List<SubDeclaration> declare(C command);
+}
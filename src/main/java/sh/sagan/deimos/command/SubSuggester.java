@@ -0,0 +1,163 @@
+package sh.sagan.deimos.command;
+
+import sh.sagan.deimos.type.AsyncConverter;
+import sh.sagan.deimos.type.BkTree;
+import sh.sagan.deimos.type.Completer;
+import sh.sagan.deimos.type.Converter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Suggests what a player might have meant when the args they ran a command with matched none of its sub commands. A
+ * suggestion is the args with one misspelled token replaced by the closest known one:
+ *
+ *     - the first token that is not the next word of a base is looked up in the words that could come next, indexed
+ *       in a {@link BkTree} per {@link SubTrie} node
+ *     - a raw arg that no param it could land on accepts is looked up in the values of those params, for params whose
+ *       converter is a {@link Completer} with a fixed set of values (enums, @Choices, booleans)
+ *
+ * All the lookups of one failed dispatch share a budget of tokens compared, and a token is never more than a few
+ * edits away from a suggestion for it, so suggesting stays cheap however many sub commands the command has. The trees
+ * are built once when the sub commands change (see {@link SubTable}).
+ */
+public final class SubSuggester {
+
+    static final int MAX_DISTANCE = 2;
+    static final int MAX_VISITS = 128;
+    static final int MAX_SUGGESTIONS = 3;
+
+    private final SubTrie subTrie;
+    private final Map<Converter<?>, BkTree> valueTrees = new IdentityHashMap<>();
+
+    public SubSuggester(SubTrie subTrie, List<DeimosCommand.Sub> subs) {
+        this.subTrie = subTrie;
+
+        for (DeimosCommand.Sub sub : subs) {
+            for (int i = 0; i < sub.arity(); i++) {
+                Converter<?> converter = sub.getConverter(i);
+                // completers whose values change over time (online players) are left out
+                if (converter instanceof Completer && ((Completer) converter).isCacheable()) {
+                    this.valueTrees.computeIfAbsent(converter, key -> new BkTree(((Completer) key).complete("")));
+                }
+            }
+        }
+    }
+
+    /**
+     * @param args The raw args that matched no sub command
+     * @return The args the player might have meant (each joined with spaces), closest first, at most
+     * {@value #MAX_SUGGESTIONS}
+     */
+    public List<String> suggest(String[] args) {
+        if (args.length == 0) {
+            return Collections.emptyList();
+        }
+
+        List<Candidate> candidates = new ArrayList<>();
+        int budget = MAX_VISITS;
+
+        // a misspelled word of a base, after the words that are right
+        SubTrie.Node node = this.subTrie.getRoot();
+        int index = 0;
+        for (SubTrie.Node child; index < args.length && (child = node.getChild(args[index])) != null; index++) {
+            node = child;
+        }
+        if (index < args.length) {
+            budget -= this.lookup(node.getChildTree(), args, index, budget, candidates);
+        }
+
+        // a misspelled raw arg of a sub command whose base was typed right
+        Tokens tokens = new Tokens(args);
+        for (node = this.subTrie.find(tokens); node != null && budget > 0; node = node.getFallback()) {
+            for (DeimosCommand.Sub sub : node.getSubs()) {
+                for (int position = 0; node.getDepth() + position < args.length && budget > 0; position++) {
+                    budget -= this.suggestArg(sub, position, args, node.getDepth() + position, budget, candidates);
+                }
+            }
+        }
+
+        // closest first, ties in the order they were found
+        candidates.sort(Comparator.comparingInt(candidate -> candidate.distance));
+        Set<String> suggestions = new LinkedHashSet<>();
+        for (Candidate candidate : candidates) {
+            if (suggestions.size() == MAX_SUGGESTIONS) {
+                break;
+            }
+            suggestions.add(candidate.line);
+        }
+        return new ArrayList<>(suggestions);
+    }
+
+    /**
+     * Looks the raw arg up in the values of the params it could land on, unless one of them accepts it.
+     *
+     * @return The number of values compared
+     */
+    private int suggestArg(DeimosCommand.Sub sub, int position, String[] args, int index, int budget,
+                           List<Candidate> candidates) {
+        int arity = sub.arity();
+        if (position >= arity || (sub.isTextEnding() && position >= arity - 1)) {
+            return 0;
+        }
+
+        // the params the raw arg can land on, the same ones tab completion goes through (see SubCompleter)
+        int last = position;
+        while (last + 1 < arity && Long.bitCount(sub.getRequiredMask() & ((1L << (last + 1)) - 1)) <= position) {
+            last++;
+        }
+
+        for (int j = position; j <= last; j++) {
+            // nothing is looked up for an async converter here, it would block the main thread
+            Converter<?> converter = sub.getConverter(j);
+            if (converter instanceof AsyncConverter ? ((AsyncConverter<?>) converter).accepts(args[index])
+                    : converter.convert(args[index]).isPresent()) {
+                return 0;
+            }
+        }
+
+        int visits = 0;
+        for (int j = position; j <= last && visits < budget; j++) {
+            BkTree tree = this.valueTrees.get(sub.getConverter(j));
+            if (tree != null) {
+                visits += this.lookup(tree, args, index, budget - visits, candidates);
+            }
+        }
+        return visits;
+    }
+
+    /**
+     * @return The number of words compared
+     */
+    private int lookup(BkTree tree, String[] args, int index, int budget, List<Candidate> candidates) {
+        String token = args[index];
+        // one edit per three characters, short tokens are a single edit away from too many words otherwise
+        int maxDistance = Math.min(MAX_DISTANCE, Math.max(1, token.length() / 3));
+
+        List<BkTree.Hit> hits = new ArrayList<>();
+        int visits = tree.search(token, maxDistance, budget, hits);
+        for (BkTree.Hit hit : hits) {
+            String[] corrected = Arrays.copyOf(args, args.length);
+            corrected[index] = hit.getWord();
+            candidates.add(new Candidate(String.join(" ", corrected), hit.getDistance()));
+        }
+        return visits;
+    }
+
+    private static final class Candidate {
+        private final String line;
+        private final int distance;
+
+        private Candidate(String line, int distance) {
+            this.line = line;
+            this.distance = distance;
+        }
+    }
+}
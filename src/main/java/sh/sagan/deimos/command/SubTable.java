@@ -0,0 +1,71 @@
+package sh.sagan.deimos.command;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable snapshot of the sub commands of a command, together with everything built from them: the trie
+ * dispatching walks, the completer, the suggester and the shape cache. A command swaps its whole table for a new one when sub
+ * commands are added or removed, so dispatching and completing (on any thread) read one consistent table without
+ * locking and a change never shows up half done.
+ */
+public final class SubTable {
+
+    static final SubTable EMPTY = new SubTable(Collections.emptyList());
+
+    private final List<DeimosCommand.Sub> subs;
+    private final SubTrie trie;
+    private final SubCompleter completer;
+    private final SubSuggester suggester;
+    private final ShapeCache shapeCache;
+
+    private SubTable(List<DeimosCommand.Sub> subs) {
+        this.subs = Collections.unmodifiableList(subs);
+        this.trie = SubTrie.build(this.subs);
+        this.completer = new SubCompleter(this.trie);
+        this.suggester = new SubSuggester(this.trie, this.subs);
+        // the cached resolutions point into the old trie, the new table starts empty
+        this.shapeCache = new ShapeCache();
+    }
+
+    /**
+     * @return A new table with the given sub commands added after the existing ones
+     */
+    SubTable with(Collection<DeimosCommand.Sub> added) {
+        List<DeimosCommand.Sub> subs = new ArrayList<>(this.subs.size() + added.size());
+        subs.addAll(this.subs);
+        subs.addAll(added);
+        return new SubTable(subs);
+    }
+
+    /**
+     * @return A new table without the given sub command
+     */
+    SubTable without(DeimosCommand.Sub removed) {
+        List<DeimosCommand.Sub> subs = new ArrayList<>(this.subs);
+        subs.remove(removed);
+        return new SubTable(subs);
+    }
+
+    public List<DeimosCommand.Sub> getSubs() {
+        return subs;
+    }
+
+    public SubTrie getTrie() {
+        return trie;
+    }
+
+    public SubCompleter getCompleter() {
+        return completer;
+    }
+
+    public SubSuggester getSuggester() {
+        return suggester;
+    }
+
+    public ShapeCache getShapeCache() {
+        return shapeCache;
+    }
+}
@@ -0,0 +1,242 @@
+package sh.sagan.deimos.command;
+
+import sh.sagan.deimos.limit.RateLimiter;
+import sh.sagan.deimos.type.BkTree;
+import sh.sagan.deimos.type.Converter;
+import sh.sagan.deimos.type.PrefixIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * An immutable, token level trie over the bases of a command's sub commands. Every word of a base is one level of the
+ * trie so multi-word bases ("give all") are supported and a base only ever matches whole tokens ("give" does not
+ * match "giveaway"). Words are matched ignoring case, the same way they are completed. Sub commands without a base live
+ * on the root node.
+ */
+public final class SubTrie {
+
+    private final Node root;
+
+    private SubTrie(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Builds a trie from the given sub commands. Sub commands sharing a base end up on the same node in the order
+     * they were given.
+     *
+     * @param subs The sub commands to index
+     * @return The built trie
+     */
+    public static SubTrie build(List<DeimosCommand.Sub> subs) {
+        Builder root = new Builder(null);
+        for (DeimosCommand.Sub sub : subs) {
+            Builder node = root;
+            if (sub.getBase().isPresent()) {
+                for (String token : sub.getBase().get().split("\\s+")) {
+                    // the first spelling of a word is the one that is completed
+                    node = node.children.computeIfAbsent(key(token), key -> new Builder(token));
+                }
+            }
+            node.subs.add(sub);
+        }
+        return new SubTrie(root.build(null, null, 0));
+    }
+
+    /**
+     * Walks the given tokens down the trie once and returns the deepest node with sub commands on it that was reached.
+     * The remaining candidates (sub commands with shorter matching bases, then the ones without a base) can be reached
+     * from there with {@link Node#getFallback()}.
+     *
+     * @param tokens The raw args passed to the command, from the start of the view
+     * @return The deepest node with sub commands whose base fully matched the start of the tokens, this might be the
+     * root node which holds all the sub commands without a base (and could be empty)
+     */
+    public Node find(Tokens tokens) {
+        Node node = this.root;
+        Node deepest = this.root;
+        for (int i = 0; i < tokens.size(); i++) {
+            node = node.children.get(key(tokens.get(i)));
+            if (node == null) {
+                break;
+            }
+            if (node.subs.length > 0) {
+                deepest = node;
+            }
+        }
+        return deepest;
+    }
+
+    public Node getRoot() {
+        return root;
+    }
+
+    // returns the token itself when it is lower case already, which it usually is
+    private static String key(String token) {
+        return token.toLowerCase(Locale.ROOT);
+    }
+
+    public static final class Node {
+        private final Map<String, Node> children;
+        private final PrefixIndex childIndex;
+        private final BkTree childTree;
+        private final DeimosCommand.Sub[] subs;
+        private final Node fallback;
+        private final int depth;
+        private final Converter<?>[] keyedConverters;
+        private final RateLimiter[] limiters;
+
+        private Node(Map<String, Node> children, PrefixIndex childIndex, BkTree childTree, DeimosCommand.Sub[] subs,
+                     Node fallback, int depth) {
+            this.children = children;
+            this.childIndex = childIndex;
+            this.childTree = childTree;
+            this.subs = subs;
+            this.fallback = fallback;
+            this.depth = depth;
+
+            // the fallbacks come first, they were built before this node
+            List<Converter<?>> keyed = new ArrayList<>();
+            if (fallback != null) {
+                keyed.addAll(Arrays.asList(fallback.keyedConverters));
+            }
+            for (DeimosCommand.Sub sub : subs) {
+                for (int i = 0; i < sub.arity(); i++) {
+                    Converter<?> converter = sub.getConverter(i);
+                    if (converter.isDeterministic() && !converter.isStateless() && !containsSame(keyed, converter)) {
+                        keyed.add(converter);
+                    }
+                }
+            }
+            this.keyedConverters = keyed.toArray(new Converter<?>[0]);
+            this.limiters = limiters(subs, fallback);
+        }
+
+        /**
+         * @param token The next word of a base, case is ignored
+         * @return The node the word leads to, null if no base continues with it
+         */
+        public Node getChild(String token) {
+            return this.children.get(key(token));
+        }
+
+        /**
+         * @param prefix What has been typed of the next word of a base
+         * @return The next words of the bases going through this node that start with the prefix (ignoring case)
+         */
+        public List<String> completeChild(String prefix) {
+            return this.childIndex.startingWith(prefix);
+        }
+
+        /**
+         * @return The next words of the bases going through this node, indexed for looking up misspelled ones
+         */
+        public BkTree getChildTree() {
+            return childTree;
+        }
+
+        /**
+         * @return The sub commands whose base ends at this node
+         */
+        public DeimosCommand.Sub[] getSubs() {
+            return subs;
+        }
+
+        /**
+         * @return The number of tokens the bases of this node's sub commands take up
+         */
+        public int getDepth() {
+            return depth;
+        }
+
+        /**
+         * @return The converters that accept raw args by value ({@link Converter#isDeterministic() deterministic} but
+         * not stateless) of the sub commands of this node and of its fallbacks, every sub command args landing here
+         * can be matched against. Whether they accept each raw arg is part of the shape of the args.
+         */
+        public Converter<?>[] getKeyedConverters() {
+            return keyedConverters;
+        }
+
+        /**
+         * @return The limiters of the sub commands of this node and of its fallbacks (empty if there are none), args
+         * landing here can only run if one of them has a permit. Null if one of the sub commands has no limit.
+         */
+        public RateLimiter[] getLimiters() {
+            return limiters;
+        }
+
+        /**
+         * @return The nearest ancestor of this node which has sub commands on it or the root node if there is none,
+         * null if this is the root node
+         */
+        public Node getFallback() {
+            return fallback;
+        }
+    }
+
+    // null as soon as one of the candidates is not limited
+    private static RateLimiter[] limiters(DeimosCommand.Sub[] subs, Node fallback) {
+        if (fallback != null && fallback.limiters == null) {
+            return null;
+        }
+        List<RateLimiter> limiters = new ArrayList<>();
+        if (fallback != null) {
+            limiters.addAll(Arrays.asList(fallback.limiters));
+        }
+        for (DeimosCommand.Sub sub : subs) {
+            if (!sub.getLimiter().isPresent()) {
+                return null;
+            }
+            limiters.add(sub.getLimiter().get());
+        }
+        return limiters.toArray(new RateLimiter[0]);
+    }
+
+    private static boolean containsSame(List<Converter<?>> converters, Converter<?> converter) {
+        for (Converter<?> other : converters) {
+            if (other == converter) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Builder {
+        private final String word;
+        // keyed by the lower cased word
+        private final Map<String, Builder> children = new HashMap<>();
+        private final List<DeimosCommand.Sub> subs = new ArrayList<>();
+
+        private Builder(String word) {
+            this.word = word;
+        }
+
+        private Node build(Node parent, Node parentFallback, int depth) {
+            // the fallback of a node is its parent if the parent has sub commands on it (or is the root)
+            Node fallback = parent == null ? null
+                    : (parent.subs.length > 0 || parent.depth == 0 ? parent : parentFallback);
+
+            List<String> words = new ArrayList<>(this.children.size());
+            for (Builder child : this.children.values()) {
+                words.add(child.word);
+            }
+
+            Map<String, Node> builtChildren = new HashMap<>();
+            Node node = new Node(this.children.isEmpty() ? Collections.emptyMap() : builtChildren,
+                    new PrefixIndex(words), new BkTree(words),
+                    this.subs.toArray(new DeimosCommand.Sub[0]), fallback, depth);
+
+            for (Map.Entry<String, Builder> entry : this.children.entrySet()) {
+                builtChildren.put(entry.getKey(), entry.getValue().build(node, fallback, depth + 1));
+            }
+            return node;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package sh.sagan.deimos.command;
+
+/**
+ * A view over the raw args of a command invocation. Bukkit already hands the args over split on spaces, so instead of
+ * joining them back together and splitting them again (for every base that gets removed) the view just keeps an offset
+ * into the original array. Removing a base is moving the offset, nothing is copied until the args of the chosen sub
+ * command are materialized.
+ */
+public final class Tokens {
+
+    private final String[] source;
+    private int offset;
+
+    public Tokens(String[] source) {
+        this.source = source;
+    }
+
+    /**
+     * Moves the start of this view. This is how the base of a sub command is removed before processing its args.
+     *
+     * @param offset The index in the original args this view should start at
+     * @return This view
+     */
+    public Tokens setOffset(int offset) {
+        this.offset = Math.min(offset, this.source.length);
+        return this;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int size() {
+        return this.source.length - this.offset;
+    }
+
+    public String get(int index) {
+        return this.source[this.offset + index];
+    }
+
+    /**
+     * @param index An index in this view
+     * @return The index in the original args the given index points to
+     */
+    public int absoluteIndex(int index) {
+        return this.offset + index;
+    }
+
+    /**
+     * Joins the tokens starting at the given index back together with single spaces. This is only meant for
+     * materializing a @Text param of the chosen sub command.
+     *
+     * @param from The index in this view to start joining from
+     * @return The joined tokens, or an empty string if there are none
+     */
+    public String join(int from) {
+        int start = this.offset + from;
+        if (start >= this.source.length) {
+            return "";
+        } else if (start == this.source.length - 1) {
+            return this.source[start];
+        }
+
+        int length = this.source.length - start - 1;
+        for (int i = start; i < this.source.length; i++) {
+            length += this.source[i].length();
+        }
+
+        StringBuilder builder = new StringBuilder(length);
+        builder.append(this.source[start]);
+        for (int i = start + 1; i < this.source.length; i++) {
+            builder.append(' ').append(this.source[i]);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @return The raw args this view is over
+     */
+    public String[] getSource() {
+        return source;
+    }
+}
@@ -0,0 +1,17 @@
+package sh.sagan.deimos.command.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Restricts a String param to a fixed set of values. Raw args are matched ignoring case and the value is passed as it
+ * is written here. The values are also what the param is tab completed with.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Choices {
+
+    String[] value();
+}
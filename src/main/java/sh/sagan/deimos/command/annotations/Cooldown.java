@@ -0,0 +1,22 @@
+package sh.sagan.deimos.command.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lets each player run the sub command (or on a command class, any of its sub commands) once per period. Running it
+ * again sooner is rejected: on a command class before the args are looked at, on a sub command before the args are
+ * converted if every sub command they could match is limited for the player, otherwise once they matched it. Same as
+ * a @RateLimit with one permit.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Cooldown {
+
+    long value();
+
+    TimeUnit unit() default TimeUnit.SECONDS;
+}
@@ -0,0 +1,24 @@
+package sh.sagan.deimos.command.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lets each player run the sub command (or on a command class, any of its sub commands) a number of times per period.
+ * The permits refill evenly over the period and a player that has not used any can use all of them at once. Running it
+ * without a permit left is rejected: on a command class before the args are looked at, on a sub command before the args
+ * are converted if every sub command they could match is limited for the player, otherwise once they matched it.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimit {
+
+    int permits();
+
+    long per();
+
+    TimeUnit unit() default TimeUnit.SECONDS;
+}
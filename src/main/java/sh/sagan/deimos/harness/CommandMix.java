@@ -0,0 +1,113 @@
+package sh.sagan.deimos.harness;
+
+import sh.sagan.deimos.trace.TraceReader;
+import sh.sagan.deimos.trace.TraceRecorder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The command lines a {@link LoadGenerator} runs. A line can contain {@code {player}}, which is replaced by the name of
+ * a random online player each time the line is run.
+ */
+@FunctionalInterface
+public interface CommandMix {
+
+    /**
+     * @param sequence The number of the invocation, counting up from 0 over all the threads of the load generator
+     * @param random The random of the thread running the invocation
+     * @return The command line to run, without the leading slash
+     */
+    String line(long sequence, Random random);
+
+    /**
+     * A synthetic mix: every invocation picks one of the lines at random, each line as often as its weight says
+     * relative to the others.
+     *
+     * @param lines The lines and their weights
+     */
+    static CommandMix weighted(Map<String, Integer> lines) {
+        String[] choices = new String[lines.size()];
+        long[] cumulative = new long[lines.size()];
+        long total = 0;
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : lines.entrySet()) {
+            if (entry.getValue() < 1) {
+                throw new IllegalArgumentException("Expected a positive weight: " + entry);
+            }
+            total += entry.getValue();
+            choices[i] = strip(entry.getKey());
+            cumulative[i++] = total;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("Expected at least one line");
+        }
+
+        long weights = total;
+        return (sequence, random) -> {
+            long pick = (long) (random.nextDouble() * weights);
+            // the first line whose cumulative weight is past the pick
+            int low = 0;
+            int high = cumulative.length - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cumulative[mid] > pick) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return choices[low];
+        };
+    }
+
+    /**
+     * A recorded mix: the lines are run in order, starting over from the first one after the last.
+     *
+     * @param lines The lines, in the order they were run
+     */
+    static CommandMix recorded(List<String> lines) {
+        if (lines.isEmpty()) {
+            throw new IllegalArgumentException("Expected at least one line");
+        }
+        String[] replay = new String[lines.size()];
+        for (int i = 0; i < replay.length; i++) {
+            replay[i] = strip(lines.get(i));
+        }
+        return (sequence, random) -> replay[(int) (sequence % replay.length)];
+    }
+
+    /**
+     * A recorded mix read from a file with a command line per line. Blank lines and lines starting with # are skipped.
+     */
+    static CommandMix read(Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (!line.trim().isEmpty() && !line.startsWith("#")) {
+                lines.add(line);
+            }
+        }
+        return recorded(lines);
+    }
+
+    /**
+     * A recorded mix of the command lines of a trace, in the order they were dispatched.
+     *
+     * @param directory The directory a {@link TraceRecorder} wrote to
+     */
+    static CommandMix traced(Path directory) throws IOException {
+        List<String> lines = new ArrayList<>();
+        TraceReader.read(directory, record -> lines.add(record.getLine()));
+        return recorded(lines);
+    }
+
+    static String strip(String line) {
+        return line.startsWith("/") ? line.substring(1) : line;
+    }
+}
@@ -0,0 +1,175 @@
+package sh.sagan.deimos.harness;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.ConsoleCommandSender;
+import org.bukkit.entity.Player;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Backs the stand-in players and console of a {@link LocalServer}. The Player interface has hundreds of methods and
+ * Deimos only calls a few of them, so the senders are proxies: the name, UUID, messages and permissions of the sender
+ * are answered here, anything else returns null (or 0, or false) and does nothing.
+ */
+public final class FakeSender implements InvocationHandler {
+
+    private final String name;
+    private final UUID uuid;
+    private final List<String> messages = new CopyOnWriteArrayList<>();
+    private final Map<String, Boolean> permissions = new ConcurrentHashMap<>();
+    private volatile boolean op;
+    private volatile boolean online;
+    private volatile boolean recording = true;
+
+    private FakeSender(String name, UUID uuid) {
+        this.name = name;
+        this.uuid = uuid;
+    }
+
+    /**
+     * @param name The name of the player
+     * @return A player with the name and a UUID made from it, like offline mode servers do
+     */
+    public static Player player(String name) {
+        return player(name, UUID.nameUUIDFromBytes(("OfflinePlayer:" + name).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public static Player player(String name, UUID uuid) {
+        return create(Player.class, new FakeSender(name, uuid));
+    }
+
+    /**
+     * @return A console sender, it has every permission
+     */
+    public static ConsoleCommandSender console() {
+        FakeSender sender = new FakeSender("CONSOLE", null);
+        sender.op = true;
+        return create(ConsoleCommandSender.class, sender);
+    }
+
+    /**
+     * @param sender A sender created by this class
+     * @return What backs the sender, empty if it is not a fake sender
+     */
+    public static Optional<FakeSender> of(CommandSender sender) {
+        if (!Proxy.isProxyClass(sender.getClass()) || !(Proxy.getInvocationHandler(sender) instanceof FakeSender)) {
+            return Optional.empty();
+        }
+        return Optional.of((FakeSender) Proxy.getInvocationHandler(sender));
+    }
+
+    private static <T> T create(Class<T> type, FakeSender sender) {
+        return type.cast(Proxy.newProxyInstance(FakeSender.class.getClassLoader(), new Class<?>[]{type}, sender));
+    }
+
+    /**
+     * @return The messages sent to the sender, oldest first
+     */
+    public List<String> getMessages() {
+        return messages;
+    }
+
+    /**
+     * @param recording Whether messages sent to the sender are kept, a load test would otherwise keep all of them
+     */
+    public void setRecording(boolean recording) {
+        this.recording = recording;
+    }
+
+    /**
+     * Sets a permission of the sender, permissions that were never set are granted only to ops.
+     */
+    public void setPermission(String permission, boolean value) {
+        this.permissions.put(permission, value);
+    }
+
+    public void setOp(boolean op) {
+        this.op = op;
+    }
+
+    void setOnline(boolean online) {
+        this.online = online;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "getName":
+            case "getDisplayName":
+            case "getPlayerListName":
+                return this.name;
+            case "getUniqueId":
+                return this.uuid;
+            case "sendMessage":
+                if (this.recording) {
+                    if (args[0] instanceof String[]) {
+                        for (String message : (String[]) args[0]) {
+                            this.messages.add(message);
+                        }
+                    } else if (args[0] instanceof String) {
+                        this.messages.add((String) args[0]);
+                    }
+                }
+                return null;
+            case "hasPermission":
+            case "isPermissionSet":
+                if (args[0] instanceof String) {
+                    Boolean value = this.permissions.get(args[0]);
+                    return method.getName().equals("isPermissionSet") ? value != null : value == null ? this.op : value;
+                }
+                return this.op;
+            case "isOp":
+                return this.op;
+            case "setOp":
+                this.op = (Boolean) args[0];
+                return null;
+            case "isOnline":
+                return this.online;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "FakeSender{" + this.name + "}";
+            default:
+                return defaultValue(method.getReturnType());
+        }
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == float.class) {
+            return 0F;
+        }
+        if (type == double.class) {
+            return 0D;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        return 0;
+    }
+}
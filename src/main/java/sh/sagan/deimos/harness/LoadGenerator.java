@@ -0,0 +1,139 @@
+package sh.sagan.deimos.harness;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandMap;
+import org.bukkit.entity.Player;
+import sh.sagan.deimos.metrics.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs a {@link CommandMix} against the commands of a {@link LocalServer} from a number of threads at once and reports
+ * the throughput and the latencies of the dispatches. Each invocation runs as the next online player (in turn) and goes
+ * through the command map the way a typed command would, though each thread dispatches on its own instead of going
+ * through a single main thread, to find out how dispatching holds up under contention.
+ *
+ * Messages sent to the players are not recorded during a run.
+ */
+public class LoadGenerator {
+
+    private static final String PLAYER = "{player}";
+
+    private final LocalServer server;
+    private final CommandMix mix;
+    private final int threads;
+
+    /**
+     * @param server The server with the commands and the players that run them
+     * @param mix The command lines to run
+     * @param threads How many threads dispatch at once
+     */
+    public LoadGenerator(LocalServer server, CommandMix mix, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Expected at least one thread");
+        }
+        this.server = server;
+        this.mix = mix;
+        this.threads = threads;
+    }
+
+    /**
+     * Runs the given number of invocations, split between the threads.
+     */
+    public LoadReport run(long invocations) throws InterruptedException {
+        return this.run(invocations, Long.MAX_VALUE);
+    }
+
+    /**
+     * Runs invocations until the time is up.
+     */
+    public LoadReport runFor(long duration, TimeUnit unit) throws InterruptedException {
+        return this.run(Long.MAX_VALUE, unit.toNanos(duration));
+    }
+
+    private LoadReport run(long invocations, long durationNanos) throws InterruptedException {
+        List<Player> players = new ArrayList<>(this.server.getOnlinePlayers());
+        if (players.isEmpty()) {
+            throw new IllegalStateException("Expected at least one online player to run the commands as");
+        }
+        for (Player player : players) {
+            FakeSender.of(player).ifPresent(sender -> sender.setRecording(false));
+        }
+
+        CommandMap commandMap = this.server.getLocalCommandMap();
+        AtomicLong sequence = new AtomicLong();
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder executed = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        LongAdder unknown = new LongAdder();
+        LongAdder failed = new LongAdder();
+
+        CountDownLatch ready = new CountDownLatch(this.threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(this.threads);
+        long[] startNanos = new long[1];
+
+        for (int t = 0; t < this.threads; t++) {
+            long seed = t;
+            Thread thread = new Thread(() -> {
+                Random random = new Random(seed);
+                ready.countDown();
+                try {
+                    start.await();
+                    long deadline = durationNanos == Long.MAX_VALUE ? Long.MAX_VALUE : startNanos[0] + durationNanos;
+                    long n;
+                    while ((n = sequence.getAndIncrement()) < invocations
+                            && (deadline == Long.MAX_VALUE || System.nanoTime() < deadline)) {
+                        Player player = players.get((int) (n % players.size()));
+                        String line = this.mix.line(n, random);
+                        if (line.contains(PLAYER)) {
+                            line = line.replace(PLAYER, players.get(random.nextInt(players.size())).getName());
+                        }
+                        String[] words = line.split(" ", -1);
+                        String[] args = new String[words.length - 1];
+                        System.arraycopy(words, 1, args, 0, args.length);
+
+                        long dispatchStart = System.nanoTime();
+                        try {
+                            Command command = commandMap.getCommand(words[0]);
+                            if (command == null) {
+                                unknown.increment();
+                            } else if (command.execute(player, words[0], args)) {
+                                executed.increment();
+                            } else {
+                                rejected.increment();
+                            }
+                        } catch (RuntimeException e) {
+                            failed.increment();
+                        }
+                        latency.record(System.nanoTime() - dispatchStart);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "deimos-load-" + t);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        ready.await();
+        startNanos[0] = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - startNanos[0];
+
+        for (Player player : players) {
+            FakeSender.of(player).ifPresent(sender -> sender.setRecording(true));
+        }
+        return new LoadReport(this.threads, elapsed, executed.sum(), rejected.sum(), unknown.sum(), failed.sum(),
+                latency.snapshot());
+    }
+}
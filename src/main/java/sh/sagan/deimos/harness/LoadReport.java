@@ -0,0 +1,99 @@
+package sh.sagan.deimos.harness;
+
+import sh.sagan.deimos.metrics.LatencyHistogram;
+
+/**
+ * What happened during a run of a {@link LoadGenerator}. Latencies are of the whole dispatch, from looking up the
+ * command to the sub command returning, in the buckets of a {@link LatencyHistogram} (so a percentile is the upper
+ * bound of its bucket).
+ */
+public final class LoadReport {
+
+    private final int threads;
+    private final long elapsedNanos;
+    private final long executed;
+    private final long rejected;
+    private final long unknown;
+    private final long failed;
+    private final LatencyHistogram.Snapshot latency;
+
+    LoadReport(int threads, long elapsedNanos, long executed, long rejected, long unknown, long failed,
+               LatencyHistogram.Snapshot latency) {
+        this.threads = threads;
+        this.elapsedNanos = elapsedNanos;
+        this.executed = executed;
+        this.rejected = rejected;
+        this.unknown = unknown;
+        this.failed = failed;
+        this.latency = latency;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return The number of lines that were run, whatever happened to them
+     */
+    public long getInvocations() {
+        return this.executed + this.rejected + this.unknown + this.failed;
+    }
+
+    /**
+     * @return The number of lines a sub command ran for
+     */
+    public long getExecuted() {
+        return executed;
+    }
+
+    /**
+     * @return The number of lines the command did not accept
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * @return The number of lines with no command for their label
+     */
+    public long getUnknown() {
+        return unknown;
+    }
+
+    /**
+     * @return The number of lines whose sub command threw
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * @return Invocations per second over all the threads
+     */
+    public double getThroughput() {
+        return this.elapsedNanos == 0 ? 0 : this.getInvocations() * 1_000_000_000.0 / this.elapsedNanos;
+    }
+
+    public LatencyHistogram.Snapshot getLatency() {
+        return latency;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d invocations on %d threads in %.1fms: %.0f ops/s%n" +
+                        "  executed %d, rejected %d, unknown %d, failed %d%n" +
+                        "  latency mean %.1fus, p50 <= %s, p90 <= %s, p99 <= %s, p99.9 <= %s",
+                this.getInvocations(), this.threads, this.elapsedNanos / 1_000_000.0, this.getThroughput(),
+                this.executed, this.rejected, this.unknown, this.failed,
+                this.latency.getMeanNanos() / 1000.0, micros(50), micros(90), micros(99), micros(99.9));
+    }
+
+    private String micros(double percentile) {
+        long nanos = this.latency.getPercentileNanos(percentile);
+        return nanos == Long.MAX_VALUE ? "overflow" : String.format("%.1fus", nanos / 1000.0);
+    }
+}
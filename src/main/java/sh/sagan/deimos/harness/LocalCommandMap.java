@@ -0,0 +1,129 @@
+package sh.sagan.deimos.harness;
+
+import org.bukkit.Location;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandException;
+import org.bukkit.command.CommandMap;
+import org.bukkit.command.CommandSender;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An in-memory command map for a {@link LocalServer}, it registers and dispatches commands the way the server's
+ * command map does (labels are lower case, every command is also known as fallbackPrefix:label and a label that is
+ * already taken only keeps the prefixed form) but has no built in commands.
+ */
+public class LocalCommandMap implements CommandMap {
+
+    private final Map<String, Command> knownCommands = new ConcurrentHashMap<>();
+
+    @Override
+    public void registerAll(String fallbackPrefix, List<Command> commands) {
+        for (Command command : commands) {
+            this.register(fallbackPrefix, command);
+        }
+    }
+
+    @Override
+    public boolean register(String label, String fallbackPrefix, Command command) {
+        label = label.toLowerCase(Locale.ROOT).trim();
+        fallbackPrefix = fallbackPrefix.toLowerCase(Locale.ROOT).trim();
+
+        boolean registered = this.register(label, command, false, fallbackPrefix);
+        for (String alias : command.getAliases()) {
+            this.register(alias.toLowerCase(Locale.ROOT).trim(), command, true, fallbackPrefix);
+        }
+        command.register(this);
+        return registered;
+    }
+
+    @Override
+    public boolean register(String fallbackPrefix, Command command) {
+        return this.register(command.getName(), fallbackPrefix, command);
+    }
+
+    private boolean register(String label, Command command, boolean alias, String fallbackPrefix) {
+        this.knownCommands.put(fallbackPrefix + ":" + label, command);
+        if (alias && this.knownCommands.containsKey(label)) {
+            return false;
+        }
+        return this.knownCommands.putIfAbsent(label, command) == null;
+    }
+
+    /**
+     * @return Whether there is a command for the line, not whether the command accepted it
+     */
+    @Override
+    public boolean dispatch(CommandSender sender, String commandLine) throws CommandException {
+        String[] words = commandLine.split(" ", -1);
+        if (words.length == 0) {
+            return false;
+        }
+
+        Command target = this.getCommand(words[0]);
+        if (target == null) {
+            return false;
+        }
+
+        String[] args = new String[words.length - 1];
+        System.arraycopy(words, 1, args, 0, args.length);
+        try {
+            target.execute(sender, words[0], args);
+        } catch (CommandException e) {
+            throw e;
+        } catch (Throwable throwable) {
+            throw new CommandException("Unhandled exception executing '" + commandLine + "' in " + target, throwable);
+        }
+        return true;
+    }
+
+    @Override
+    public void clearCommands() {
+        for (Command command : this.knownCommands.values()) {
+            command.unregister(this);
+        }
+        this.knownCommands.clear();
+    }
+
+    @Override
+    public Command getCommand(String name) {
+        return this.knownCommands.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    @Override
+    public List<String> tabComplete(CommandSender sender, String commandLine) {
+        return this.tabComplete(sender, commandLine, null);
+    }
+
+    @Override
+    public List<String> tabComplete(CommandSender sender, String commandLine, Location location) {
+        int space = commandLine.indexOf(' ');
+        if (space == -1) {
+            List<String> labels = new ArrayList<>();
+            String prefix = commandLine.toLowerCase(Locale.ROOT);
+            for (String label : this.knownCommands.keySet()) {
+                if (label.startsWith(prefix)) {
+                    labels.add("/" + label);
+                }
+            }
+            Collections.sort(labels);
+            return labels;
+        }
+
+        Command target = this.getCommand(commandLine.substring(0, space));
+        if (target == null) {
+            return null;
+        }
+        return target.tabComplete(sender, commandLine.substring(0, space), commandLine.substring(space + 1).split(" ", -1));
+    }
+
+    @Override
+    public Map<String, Command> getKnownCommands() {
+        return knownCommands;
+    }
+}
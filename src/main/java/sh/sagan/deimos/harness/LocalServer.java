@@ -0,0 +1,115 @@
+package sh.sagan.deimos.harness;
+
+import org.bukkit.command.CommandMap;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import sh.sagan.deimos.scheduler.DeimosScheduler;
+import sh.sagan.deimos.scheduler.LocalScheduler;
+import sh.sagan.deimos.server.DeimosServer;
+import sh.sagan.deimos.type.OnlinePlayerIndex;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A stand-in server that runs in a plain JVM: players are {@link FakeSender}s that join and quit when told to, commands
+ * go into a {@link LocalCommandMap} and sub commands run on a {@link LocalScheduler}. Together with a
+ * {@link sh.sagan.deimos.command.DeimosCommandManager} created for it, commands can be registered and dispatched
+ * exactly like on a server.
+ */
+public class LocalServer implements DeimosServer {
+
+    private final String name;
+    private final LocalCommandMap commandMap = new LocalCommandMap();
+    private final LocalScheduler scheduler;
+    private final Map<String, Player> players = new ConcurrentHashMap<>();
+    private final List<OnlinePlayerIndex> indexes = new CopyOnWriteArrayList<>();
+
+    public LocalServer(String name, LocalScheduler scheduler) {
+        this.name = name;
+        this.scheduler = scheduler;
+    }
+
+    public LocalServer() {
+        this("local", new LocalScheduler());
+    }
+
+    /**
+     * Creates a player and has it join.
+     *
+     * @param name The name of the player
+     * @return The player
+     */
+    public Player join(String name) {
+        Player player = FakeSender.player(name);
+        this.join(player);
+        return player;
+    }
+
+    public void join(Player player) {
+        FakeSender.of(player).ifPresent(sender -> sender.setOnline(true));
+        this.players.put(player.getName(), player);
+        for (OnlinePlayerIndex index : this.indexes) {
+            index.add(player);
+        }
+    }
+
+    public void quit(Player player) {
+        FakeSender.of(player).ifPresent(sender -> sender.setOnline(false));
+        this.players.remove(player.getName(), player);
+        for (OnlinePlayerIndex index : this.indexes) {
+            index.remove(player);
+        }
+    }
+
+    /**
+     * Dispatches a command line through the command map, as if the player typed it.
+     *
+     * @param sender The player (or any other sender) running the command
+     * @param line The command line, with or without the leading slash
+     * @return Whether there is a command for the line
+     */
+    public boolean dispatch(CommandSender sender, String line) {
+        return this.commandMap.dispatch(sender, line.startsWith("/") ? line.substring(1) : line);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Optional<CommandMap> getCommandMap() {
+        return Optional.of(this.commandMap);
+    }
+
+    public LocalCommandMap getLocalCommandMap() {
+        return commandMap;
+    }
+
+    @Override
+    public Collection<? extends Player> getOnlinePlayers() {
+        return Collections.unmodifiableList(new ArrayList<>(this.players.values()));
+    }
+
+    @Override
+    public void track(OnlinePlayerIndex index) {
+        this.indexes.add(index);
+        index.seed(this.players.values());
+    }
+
+    @Override
+    public DeimosScheduler getScheduler() {
+        return scheduler;
+    }
+
+    public LocalScheduler getLocalScheduler() {
+        return scheduler;
+    }
+}
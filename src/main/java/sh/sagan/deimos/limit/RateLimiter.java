@@ -0,0 +1,273 @@
+package sh.sagan.deimos.limit;
+
+import sh.sagan.deimos.command.annotations.Cooldown;
+import sh.sagan.deimos.command.annotations.RateLimit;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket per player, for @Cooldown and @RateLimit.
+ *
+ * Each bucket is kept as a single long, the time at which it will be full again (the "theoretical arrival time" of the
+ * generic cell rate algorithm). With a permit refilling every {@code interval = period / permits}, a request at time
+ * {@code now} is allowed if
+ *
+ *     max(full, now) + interval - now <= period
+ *
+ * and then the bucket's time moves to {@code max(full, now) + interval}. This is the same as counting tokens that
+ * refill over time, but the whole state changes in one compare and set so acquiring never locks.
+ *
+ * The buckets live in an open addressed table keyed by the two longs of the player's UUID (linear probing, at most
+ * half full), so looking one up allocates nothing and boxes nothing. A slot's key is written before its time is
+ * published, so readers only look at keys of slots with a time. Adding a player locks, and so does making room: the
+ * table is rebuilt without the buckets that are full again (a full bucket acts the same as a missing one, so evicting it
+ * changes nothing), growing it if it is still too full. The table is also rebuilt when a player is added and it was not
+ * rebuilt for a period (or a second, if the period is shorter), so players that stopped running the command are evicted
+ * even if the table never fills up. Every slot is marked as moved while it is copied, an acquire
+ * that runs into a moved slot retries on the new table so no permit is lost.
+ */
+public final class RateLimiter {
+
+    // a slot with no bucket, and a slot whose bucket was copied into a newer table
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final long MOVED = Long.MIN_VALUE + 1;
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long MIN_SWEEP_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    private final long interval;
+    private final long period;
+    private final LongSupplier clock;
+    private final long origin;
+    private final long sweepInterval;
+    // when the table was last rebuilt, only used while holding the lock
+    private long lastSweep;
+
+    private volatile Table table = new Table(INITIAL_CAPACITY);
+
+    /**
+     * @param permits How many times a player can pass per period
+     * @param period The period the permits refill over
+     * @param unit The unit of the period
+     */
+    public RateLimiter(int permits, long period, TimeUnit unit) {
+        this(permits, period, unit, System::nanoTime);
+    }
+
+    /**
+     * @param clock The time in nanoseconds, only the differences between its values matter
+     */
+    public RateLimiter(int permits, long period, TimeUnit unit, LongSupplier clock) {
+        if (permits < 1 || period < 1) {
+            throw new IllegalArgumentException("Expected at least one permit per period of at least one " + unit);
+        }
+        this.period = unit.toNanos(period);
+        this.interval = Math.max(1, this.period / permits);
+        this.clock = clock;
+        // times are kept relative to this so they never reach the markers
+        this.origin = clock.getAsLong();
+        this.sweepInterval = Math.max(this.period, MIN_SWEEP_INTERVAL);
+    }
+
+    /**
+     * @return A limiter for the @Cooldown or @RateLimit annotation that is present, empty if neither is
+     * @throws IllegalArgumentException If both are present or the one present has no permits or no period
+     */
+    public static Optional<RateLimiter> of(Cooldown cooldown, RateLimit rateLimit) {
+        if (cooldown != null && rateLimit != null) {
+            throw new IllegalArgumentException("Only one of @Cooldown and @RateLimit can be applied");
+        }
+        if (cooldown != null) {
+            return Optional.of(new RateLimiter(1, cooldown.value(), cooldown.unit()));
+        }
+        if (rateLimit != null) {
+            return Optional.of(new RateLimiter(rateLimit.permits(), rateLimit.per(), rateLimit.unit()));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Takes a permit from the player's bucket if there is one.
+     *
+     * @param player The UUID of the player
+     * @return 0 if the player got a permit, otherwise how many nanoseconds until the next one
+     */
+    public long tryAcquire(UUID player) {
+        long most = player.getMostSignificantBits();
+        long least = player.getLeastSignificantBits();
+
+        while (true) {
+            long now = this.clock.getAsLong() - this.origin;
+            Table table = this.table;
+            int slot = table.find(most, least);
+            if (slot == -1) {
+                this.insert(most, least);
+                continue;
+            }
+            if (slot == -2) {
+                continue;
+            }
+
+            long full = table.times.get(slot);
+            if (full == MOVED) {
+                continue;
+            }
+
+            long next = Math.max(full, now) + this.interval;
+            if (next - now > this.period) {
+                return next - now - this.period;
+            }
+            if (table.times.compareAndSet(slot, full, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Checks whether the player's bucket has a permit without taking it.
+     *
+     * @param player The UUID of the player
+     * @return 0 if the player would get a permit, otherwise how many nanoseconds until the next one
+     */
+    public long peek(UUID player) {
+        long most = player.getMostSignificantBits();
+        long least = player.getLeastSignificantBits();
+
+        while (true) {
+            long now = this.clock.getAsLong() - this.origin;
+            Table table = this.table;
+            int slot = table.find(most, least);
+            if (slot == -1) {
+                // a player without a bucket has a full one
+                return 0;
+            }
+            if (slot == -2) {
+                continue;
+            }
+
+            long full = table.times.get(slot);
+            if (full == MOVED) {
+                continue;
+            }
+            long next = Math.max(full, now) + this.interval;
+            return Math.max(0, next - now - this.period);
+        }
+    }
+
+    /**
+     * @return The number of players with a bucket, including the ones that are full again but were not evicted yet
+     */
+    public int size() {
+        return this.table.size;
+    }
+
+    private synchronized void insert(long most, long least) {
+        Table table = this.table;
+        if (table.find(most, least) >= 0) {
+            return;
+        }
+
+        long now = this.clock.getAsLong() - this.origin;
+        if ((table.size + 1) * 2 > table.capacity() || now - this.lastSweep >= this.sweepInterval) {
+            table = this.rebuild(table, now);
+        }
+
+        int slot = table.slot(most, least);
+        while (table.times.get(slot) != EMPTY) {
+            slot = (slot + 1) & table.mask;
+        }
+        table.keys[2 * slot] = most;
+        table.keys[2 * slot + 1] = least;
+        table.size++;
+        // a new bucket starts full, publishing its time also publishes its key
+        table.times.set(slot, now);
+    }
+
+    private Table rebuild(Table old, long now) {
+        this.lastSweep = now;
+
+        // freeze every bucket first so none changes after it was counted or copied
+        long[] times = new long[old.capacity()];
+        int live = 0;
+        for (int slot = 0; slot < times.length; slot++) {
+            times[slot] = old.times.getAndSet(slot, MOVED);
+            if (times[slot] > now) {
+                live++;
+            }
+        }
+
+        // shrinks back down once most of the players are gone
+        int capacity = INITIAL_CAPACITY;
+        while ((live + 1) * 4 > capacity) {
+            capacity *= 2;
+        }
+
+        Table table = new Table(capacity);
+        for (int slot = 0; slot < times.length; slot++) {
+            // EMPTY and MOVED are never greater than now, neither are full buckets
+            if (times[slot] > now) {
+                long most = old.keys[2 * slot];
+                long least = old.keys[2 * slot + 1];
+                int target = table.slot(most, least);
+                while (table.times.get(target) != EMPTY) {
+                    target = (target + 1) & table.mask;
+                }
+                table.keys[2 * target] = most;
+                table.keys[2 * target + 1] = least;
+                table.times.set(target, times[slot]);
+                table.size++;
+            }
+        }
+
+        this.table = table;
+        return table;
+    }
+
+    private static final class Table {
+        private final long[] keys;
+        private final AtomicLongArray times;
+        private final int mask;
+        // only changed while holding the lock of the limiter
+        private volatile int size;
+
+        private Table(int capacity) {
+            this.keys = new long[2 * capacity];
+            this.times = new AtomicLongArray(capacity);
+            for (int slot = 0; slot < capacity; slot++) {
+                this.times.set(slot, EMPTY);
+            }
+            this.mask = capacity - 1;
+        }
+
+        private int capacity() {
+            return this.mask + 1;
+        }
+
+        private int slot(long most, long least) {
+            long hash = most * 0x9E3779B97F4A7C15L ^ least;
+            return (int) (hash ^ (hash >>> 32)) & this.mask;
+        }
+
+        /**
+         * @return The slot of the key, -1 if it has no slot or -2 if this table was replaced by a newer one
+         */
+        private int find(long most, long least) {
+            for (int slot = this.slot(most, least); ; slot = (slot + 1) & this.mask) {
+                long time = this.times.get(slot);
+                if (time == EMPTY) {
+                    return -1;
+                }
+                if (time == MOVED) {
+                    return -2;
+                }
+                if (this.keys[2 * slot] == most && this.keys[2 * slot + 1] == least) {
+                    return slot;
+                }
+            }
+        }
+    }
+}
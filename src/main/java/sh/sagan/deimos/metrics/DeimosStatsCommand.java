@@ -0,0 +1,70 @@
+package sh.sagan.deimos.metrics;
+
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+import sh.sagan.deimos.command.DeimosCommand;
+import sh.sagan.deimos.command.annotations.Optional;
+import sh.sagan.deimos.command.annotations.SubCommand;
+
+import java.util.Map;
+
+/**
+ * /deimos stats [top]: shows the dispatch metrics to players with the deimos.stats permission.
+ * /deimos stats reset: clears them.
+ */
+public class DeimosStatsCommand extends DeimosCommand {
+
+    private final DispatchMetrics metrics;
+
+    public DeimosStatsCommand(DispatchMetrics metrics) {
+        super("deimos", "/deimos stats [top]", "Shows command dispatch metrics", new String[0]);
+        this.metrics = metrics;
+        this.setPermission("deimos.stats");
+    }
+
+    @SubCommand(base = "stats")
+    void stats(Player player, @Optional("5") Integer top) {
+        if (!this.testPermission(player)) {
+            return;
+        }
+
+        MetricsSnapshot snapshot = this.metrics.snapshot();
+        player.sendMessage(ChatColor.GOLD + "Dispatches: " + ChatColor.WHITE + snapshot.getDispatches()
+                + ChatColor.GRAY + " (" + snapshot.getUnmatched() + " unmatched, " + snapshot.getRateLimited() + " rate limited)");
+        player.sendMessage(ChatColor.GOLD + "Match: " + ChatColor.WHITE + format(snapshot.getMatchLatency()));
+        player.sendMessage(ChatColor.GOLD + "Execute: " + ChatColor.WHITE + format(snapshot.getExecuteLatency()));
+
+        player.sendMessage(ChatColor.GOLD + "Top sub commands:");
+        send(player, snapshot.getInvocations(), top);
+        player.sendMessage(ChatColor.GOLD + "Conversion failures:");
+        send(player, snapshot.getConversionFailures(), top);
+    }
+
+    @SubCommand(base = "stats reset")
+    void reset(Player player) {
+        if (!this.testPermission(player)) {
+            return;
+        }
+        this.metrics.reset();
+        player.sendMessage(ChatColor.GOLD + "Dispatch metrics reset");
+    }
+
+    private static void send(Player player, Map<String, Long> counts, int top) {
+        int sent = 0;
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            if (sent++ >= top) {
+                break;
+            }
+            player.sendMessage(ChatColor.GRAY + "  " + entry.getValue() + "  " + ChatColor.WHITE + entry.getKey());
+        }
+    }
+
+    private static String format(LatencyHistogram.Snapshot latency) {
+        return String.format("n=%d mean=%s p50<=%s p99<=%s", latency.getCount(), micros(latency.getMeanNanos()),
+                micros(latency.getPercentileNanos(50)), micros(latency.getPercentileNanos(99)));
+    }
+
+    private static String micros(double nanos) {
+        return nanos == Long.MAX_VALUE ? "inf" : String.format("%.1fus", nanos / 1000);
+    }
+}
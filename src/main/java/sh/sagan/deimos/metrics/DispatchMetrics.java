@@ -0,0 +1,137 @@
+package sh.sagan.deimos.metrics;
+
+import sh.sagan.deimos.command.DeimosCommand;
+import sh.sagan.deimos.type.Converter;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts what happens when commands are dispatched: how often each sub command runs, how long matching the args and
+ * executing the sub command take, and how often each converter rejects a raw arg. Everything recorded on the dispatch
+ * path is a {@link LongAdder} (or a histogram made of them), nothing locks. Counters of a sub command or converter are
+ * created the first time it is recorded, after that recording is a lookup in a {@link ConcurrentHashMap} (which does
+ * not lock for reads) and an increment.
+ *
+ * Counters are kept by sub command so recording never builds a label, which means the sub commands have to be
+ * {@link #forget(Collection) forgotten} once they are removed or they stay reachable from here (with their invokers
+ * and commands). Conversion failures are kept by the class of the converter, converters of the same class are reported
+ * together anyway.
+ */
+public final class DispatchMetrics {
+
+    private final LongAdder dispatches = new LongAdder();
+    private final LongAdder unmatched = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LatencyHistogram matchLatency = new LatencyHistogram();
+    private final LatencyHistogram executeLatency = new LatencyHistogram();
+    private final Map<DeimosCommand.Sub, Counter> invocations = new ConcurrentHashMap<>();
+    // the counts of sub commands that were removed, by their label
+    private final Map<String, LongAdder> forgotten = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Counter> conversionFailures = new ConcurrentHashMap<>();
+
+    /**
+     * @param nanos How long it took to find the sub command for the args
+     * @param matched Whether a sub command was found
+     */
+    public void recordMatch(long nanos, boolean matched) {
+        this.dispatches.increment();
+        if (!matched) {
+            this.unmatched.increment();
+        }
+        this.matchLatency.record(nanos);
+    }
+
+    /**
+     * @param command The command the sub command belongs to
+     * @param sub The sub command that was executed
+     * @param nanos How long executing it took
+     */
+    public void recordExecute(DeimosCommand command, DeimosCommand.Sub sub, long nanos) {
+        Counter counter = this.invocations.get(sub);
+        if (counter == null) {
+            counter = this.invocations.computeIfAbsent(sub, key -> new Counter(describe(command, key)));
+        }
+        counter.adder.increment();
+        this.executeLatency.record(nanos);
+    }
+
+    /**
+     * Records a command that was not run because the player ran it too often.
+     */
+    public void recordRateLimited() {
+        this.rateLimited.increment();
+    }
+
+    /**
+     * @param converter A converter that rejected a raw arg
+     */
+    public void recordConversionFailure(Converter<?> converter) {
+        Counter counter = this.conversionFailures.get(converter.getClass());
+        if (counter == null) {
+            counter = this.conversionFailures.computeIfAbsent(converter.getClass(),
+                    key -> new Counter(key.getSimpleName()));
+        }
+        counter.adder.increment();
+    }
+
+    /**
+     * Drops the counters of sub commands that were removed (or whose command was), their counts are still reported
+     * under their label.
+     *
+     * @param subs The sub commands that were removed
+     */
+    public void forget(Collection<DeimosCommand.Sub> subs) {
+        for (DeimosCommand.Sub sub : subs) {
+            Counter counter = this.invocations.remove(sub);
+            if (counter != null) {
+                this.forgotten.computeIfAbsent(counter.label, key -> new LongAdder()).add(counter.adder.sum());
+            }
+        }
+    }
+
+    public MetricsSnapshot snapshot() {
+        Map<String, Long> invocations = sums(this.invocations);
+        this.forgotten.forEach((label, adder) -> invocations.merge(label, adder.sum(), Long::sum));
+        return new MetricsSnapshot(this.dispatches.sum(), this.unmatched.sum(), this.rateLimited.sum(),
+                this.matchLatency.snapshot(), this.executeLatency.snapshot(),
+                invocations, sums(this.conversionFailures));
+    }
+
+    public void reset() {
+        this.dispatches.reset();
+        this.unmatched.reset();
+        this.rateLimited.reset();
+        this.matchLatency.reset();
+        this.executeLatency.reset();
+        this.invocations.clear();
+        this.forgotten.clear();
+        this.conversionFailures.clear();
+    }
+
+    private static Map<String, Long> sums(Map<?, Counter> counters) {
+        // converters of the same class (or sub commands described the same) are summed up
+        Map<String, Long> sums = new LinkedHashMap<>();
+        for (Counter counter : counters.values()) {
+            sums.merge(counter.label, counter.adder.sum(), Long::sum);
+        }
+        return sums;
+    }
+
+    private static String describe(DeimosCommand command, DeimosCommand.Sub sub) {
+        String signature = sub.getSignature();
+        return "/" + command.getRoot() + (signature.isEmpty() ? "" : " " + signature);
+    }
+
+    private static final class Counter {
+        private final String label;
+        private final LongAdder adder = new LongAdder();
+
+        private Counter(String label) {
+            this.label = label;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package sh.sagan.deimos.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A latency histogram with fixed buckets, safe to record into from any number of threads without locking. Every
+ * bucket is a {@link LongAdder} so threads recording at the same time mostly don't contend on the same cell.
+ */
+public final class LatencyHistogram {
+
+    /**
+     * The upper bound (inclusive) of each bucket in nanoseconds. Anything above the last bound goes into one more
+     * overflow bucket.
+     */
+    private static final long[] BOUNDS = {
+            1_000L, 2_000L, 5_000L,
+            10_000L, 20_000L, 50_000L,
+            100_000L, 200_000L, 500_000L,
+            1_000_000L, 2_000_000L, 5_000_000L,
+            10_000_000L, 50_000_000L
+    };
+
+    private final LongAdder[] buckets = new LongAdder[BOUNDS.length + 1];
+    private final LongAdder totalNanos = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < this.buckets.length; i++) {
+            this.buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        int bucket = 0;
+        while (bucket < BOUNDS.length && nanos > BOUNDS[bucket]) {
+            bucket++;
+        }
+        this.buckets[bucket].increment();
+        this.totalNanos.add(nanos);
+    }
+
+    /**
+     * @return The counts recorded so far. Recording can go on while this is taken so the counts are not guaranteed to
+     * be from one exact moment.
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[this.buckets.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = this.buckets[i].sum();
+        }
+        return new Snapshot(counts, this.totalNanos.sum());
+    }
+
+    public void reset() {
+        for (LongAdder bucket : this.buckets) {
+            bucket.reset();
+        }
+        this.totalNanos.reset();
+    }
+
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long totalNanos;
+
+        private Snapshot(long[] counts, long totalNanos) {
+            this.counts = counts;
+            this.totalNanos = totalNanos;
+
+            long count = 0;
+            for (long bucket : counts) {
+                count += bucket;
+            }
+            this.count = count;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public double getMeanNanos() {
+            return this.count == 0 ? 0 : (double) this.totalNanos / this.count;
+        }
+
+        /**
+         * @param percentile Between 0 and 100
+         * @return The upper bound of the bucket the percentile falls in, Long.MAX_VALUE if it is the overflow bucket and
+         * 0 if nothing was recorded
+         */
+        public long getPercentileNanos(double percentile) {
+            if (this.count == 0) {
+                return 0;
+            }
+
+            long rank = (long) Math.ceil(percentile / 100 * this.count);
+            long seen = 0;
+            for (int i = 0; i < this.counts.length; i++) {
+                seen += this.counts[i];
+                if (seen >= rank && seen > 0) {
+                    return i < BOUNDS.length ? BOUNDS[i] : Long.MAX_VALUE;
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+
+        /**
+         * @return The number of recordings per bucket, the last one is the overflow bucket
+         */
+        public long[] getCounts() {
+            return counts.clone();
+        }
+
+        /**
+         * @return The upper bound in nanoseconds of every bucket but the overflow bucket
+         */
+        public static long[] getBounds() {
+            return BOUNDS.clone();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package sh.sagan.deimos.metrics;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The dispatch metrics at the time {@link DispatchMetrics#snapshot()} was called.
+ */
+public final class MetricsSnapshot {
+
+    private final long dispatches;
+    private final long unmatched;
+    private final long rateLimited;
+    private final LatencyHistogram.Snapshot matchLatency;
+    private final LatencyHistogram.Snapshot executeLatency;
+    private final Map<String, Long> invocations;
+    private final Map<String, Long> conversionFailures;
+
+    MetricsSnapshot(long dispatches, long unmatched, long rateLimited, LatencyHistogram.Snapshot matchLatency,
+                    LatencyHistogram.Snapshot executeLatency, Map<String, Long> invocations,
+                    Map<String, Long> conversionFailures) {
+        this.dispatches = dispatches;
+        this.unmatched = unmatched;
+        this.rateLimited = rateLimited;
+        this.matchLatency = matchLatency;
+        this.executeLatency = executeLatency;
+        this.invocations = sortedByCount(invocations);
+        this.conversionFailures = sortedByCount(conversionFailures);
+    }
+
+    /**
+     * @return The number of times args were matched against the sub commands of a command
+     */
+    public long getDispatches() {
+        return dispatches;
+    }
+
+    /**
+     * @return The number of dispatches no sub command accepted the args of
+     */
+    public long getUnmatched() {
+        return unmatched;
+    }
+
+    /**
+     * @return The number of commands that were not run because the player ran them too often
+     */
+    public long getRateLimited() {
+        return rateLimited;
+    }
+
+    public LatencyHistogram.Snapshot getMatchLatency() {
+        return matchLatency;
+    }
+
+    public LatencyHistogram.Snapshot getExecuteLatency() {
+        return executeLatency;
+    }
+
+    /**
+     * @return The number of times each sub command was executed, most executed first
+     */
+    public Map<String, Long> getInvocations() {
+        return invocations;
+    }
+
+    /**
+     * @return The number of raw args each converter rejected, by converter class, most rejections first
+     */
+    public Map<String, Long> getConversionFailures() {
+        return conversionFailures;
+    }
+
+    private static Map<String, Long> sortedByCount(Map<String, Long> counts) {
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return Collections.unmodifiableMap(sorted);
+    }
+}
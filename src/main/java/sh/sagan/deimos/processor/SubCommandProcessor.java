@@ -0,0 +1,317 @@
+package sh.sagan.deimos.processor;
+
+import sh.sagan.deimos.command.DeimosCommand;
+import sh.sagan.deimos.command.SubRegistration;
+import sh.sagan.deimos.command.annotations.Async;
+import sh.sagan.deimos.command.annotations.Choices;
+import sh.sagan.deimos.command.annotations.Cooldown;
+import sh.sagan.deimos.command.annotations.Optional;
+import sh.sagan.deimos.command.annotations.Priority;
+import sh.sagan.deimos.command.annotations.RateLimit;
+import sh.sagan.deimos.command.annotations.SubCommand;
+import sh.sagan.deimos.command.annotations.Text;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks the sub command methods of every command at compile time and generates a
+ * {@link sh.sagan.deimos.command.SubRegistration} for the command, so that registering it at runtime needs no
+ * reflection. A method with an invalid signature is a compile error instead of a warning logged when the plugin is
+ * enabled:
+ *
+ *     - the method has to be declared on a DeimosCommand
+ *     - its first param has to be a Player
+ *     - it can have at most 64 more params
+ *     - only its last param can have a @Text annotation, and then none of the others can be @Optional
+ *     - a @Choices annotation needs at least one choice and can only be on a String param
+ *     - it can have a @Cooldown or a @RateLimit but not both, with at least one permit per period of at least one unit
+ *
+ * The generated invokers call the methods directly so they cannot be private and neither can the command class. A
+ * command with a private sub command method gets no generated registration (with a warning) and is registered through
+ * reflection like before.
+ */
+@SupportedAnnotationTypes("sh.sagan.deimos.command.annotations.SubCommand")
+public class SubCommandProcessor extends AbstractProcessor {
+
+    private static final String COMMAND = "sh.sagan.deimos.command.DeimosCommand";
+    private static final String PLAYER = "org.bukkit.entity.Player";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        // the sub command methods of each command, in declaration order
+        Map<TypeElement, List<ExecutableElement>> commands = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(SubCommand.class)) {
+            if (element.getKind() == ElementKind.METHOD) {
+                commands.computeIfAbsent((TypeElement) element.getEnclosingElement(), key -> new ArrayList<>())
+                        .add((ExecutableElement) element);
+            }
+        }
+
+        for (Map.Entry<TypeElement, List<ExecutableElement>> entry : commands.entrySet()) {
+            TypeElement command = entry.getKey();
+            boolean valid = this.checkCommand(command);
+            for (ExecutableElement method : entry.getValue()) {
+                valid &= this.checkMethod(method);
+            }
+
+            if (valid && this.canGenerate(command, entry.getValue())) {
+                this.generate(command, entry.getValue());
+            }
+        }
+        return false;
+    }
+
+    private boolean checkCommand(TypeElement command) {
+        Types types = this.processingEnv.getTypeUtils();
+        TypeElement deimosCommand = this.processingEnv.getElementUtils().getTypeElement(COMMAND);
+        if (deimosCommand != null && !types.isSubtype(types.erasure(command.asType()), types.erasure(deimosCommand.asType()))) {
+            this.error(command, "Sub commands can only be declared on a DeimosCommand");
+            return false;
+        }
+        return true;
+    }
+
+    private boolean checkMethod(ExecutableElement method) {
+        List<? extends VariableElement> parameters = method.getParameters();
+
+        TypeElement player = this.processingEnv.getElementUtils().getTypeElement(PLAYER);
+        if (parameters.isEmpty() || (player != null
+                && !this.processingEnv.getTypeUtils().isSameType(parameters.get(0).asType(), player.asType()))) {
+            this.error(method, "First argument of a sub command must be of type 'Player'");
+            return false;
+        }
+
+        if (parameters.size() - 1 > DeimosCommand.Sub.MAX_PARAMS) {
+            this.error(method, "Sub commands can have at most " + DeimosCommand.Sub.MAX_PARAMS
+                    + " parameters after the player");
+            return false;
+        }
+
+        for (int i = 0; i < parameters.size() - 1; i++) {
+            if (parameters.get(i).getAnnotation(Text.class) != null) {
+                this.error(parameters.get(i), "@Text can only be applied to the last parameter of a sub command");
+                return false;
+            }
+        }
+
+        Cooldown cooldown = method.getAnnotation(Cooldown.class);
+        RateLimit rateLimit = method.getAnnotation(RateLimit.class);
+        if (cooldown != null && rateLimit != null) {
+            this.error(method, "Only one of @Cooldown and @RateLimit can be applied to a sub command");
+            return false;
+        }
+        if ((cooldown != null && cooldown.value() < 1)
+                || (rateLimit != null && (rateLimit.permits() < 1 || rateLimit.per() < 1))) {
+            this.error(method, "Rate limits need at least one permit per period of at least one unit");
+            return false;
+        }
+
+        for (int i = 1; i < parameters.size(); i++) {
+            Choices choices = parameters.get(i).getAnnotation(Choices.class);
+            if (choices != null && (choices.value().length == 0
+                    || !parameters.get(i).asType().toString().equals(String.class.getName()))) {
+                this.error(parameters.get(i), "@Choices needs at least one choice and can only be applied to a 'String' parameter");
+                return false;
+            }
+        }
+
+        if (parameters.get(parameters.size() - 1).getAnnotation(Text.class) != null) {
+            for (int i = 0; i < parameters.size() - 1; i++) {
+                if (parameters.get(i).getAnnotation(Optional.class) != null) {
+                    this.error(parameters.get(i), "@Optional is not allowed on parameters before a @Text parameter");
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private String limiter(ExecutableElement method) {
+        Cooldown cooldown = method.getAnnotation(Cooldown.class);
+        RateLimit rateLimit = method.getAnnotation(RateLimit.class);
+        if (cooldown != null) {
+            return "new sh.sagan.deimos.limit.RateLimiter(1, " + cooldown.value() + "L, java.util.concurrent.TimeUnit."
+                    + cooldown.unit().name() + ")";
+        }
+        if (rateLimit != null) {
+            return "new sh.sagan.deimos.limit.RateLimiter(" + rateLimit.permits() + ", " + rateLimit.per()
+                    + "L, java.util.concurrent.TimeUnit." + rateLimit.unit().name() + ")";
+        }
+        return "null";
+    }
+
+    private String choices(Choices choices) {
+        if (choices == null) {
+            return "null";
+        }
+        Elements elements = this.processingEnv.getElementUtils();
+        StringBuilder array = new StringBuilder("new String[]{");
+        for (int i = 0; i < choices.value().length; i++) {
+            if (i > 0) {
+                array.append(", ");
+            }
+            array.append(elements.getConstantExpression(choices.value()[i]));
+        }
+        return array.append("}").toString();
+    }
+
+    private boolean canGenerate(TypeElement command, List<ExecutableElement> methods) {
+        // the generated class lives in the package of the command and has to be able to see it
+        for (Element element = command; element.getKind() != ElementKind.PACKAGE; element = element.getEnclosingElement()) {
+            if (element.getModifiers().contains(Modifier.PRIVATE) || (element instanceof TypeElement
+                    && ((TypeElement) element).getNestingKind() != NestingKind.TOP_LEVEL
+                    && ((TypeElement) element).getNestingKind() != NestingKind.MEMBER)) {
+                this.warning(command, "No registration generated, the command class is not accessible from its package." +
+                        " Its sub commands will be registered through reflection");
+                return false;
+            }
+        }
+
+        for (ExecutableElement method : methods) {
+            if (method.getModifiers().contains(Modifier.PRIVATE)) {
+                this.warning(method, "No registration generated for '" + command.getSimpleName() + "', private sub" +
+                        " command methods can only be registered through reflection");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void generate(TypeElement command, List<ExecutableElement> methods) {
+        Elements elements = this.processingEnv.getElementUtils();
+        Types types = this.processingEnv.getTypeUtils();
+
+        String packageName = elements.getPackageOf(command).getQualifiedName().toString();
+        String binaryName = elements.getBinaryName(command).toString();
+        String simpleName = binaryName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1)
+                + SubRegistration.SUFFIX;
+        String commandType = types.erasure(command.asType()).toString();
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/**\n")
+                .append(" * Generated by ").append(SubCommandProcessor.class.getName()).append(" from {@link ")
+                .append(commandType).append("}, do not edit.\n")
+                .append(" */\n")
+                .append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n")
+                .append("public final class ").append(simpleName)
+                .append(" implements sh.sagan.deimos.command.SubRegistration<").append(commandType).append("> {\n\n")
+                .append("    @Override\n")
+                .append("    public java.util.List<sh.sagan.deimos.command.SubDeclaration> declare(final ")
+                .append(commandType).append(" command) {\n")
+                .append("        java.util.List<sh.sagan.deimos.command.SubDeclaration> subs = new java.util.ArrayList<>(")
+                .append(methods.size()).append(");\n");
+
+        for (ExecutableElement method : methods) {
+            List<? extends VariableElement> parameters = method.getParameters();
+            int arity = parameters.size() - 1;
+
+            StringBuilder classes = new StringBuilder();
+            StringBuilder defaults = new StringBuilder();
+            StringBuilder choices = new StringBuilder();
+            StringBuilder arguments = new StringBuilder("player");
+            for (int i = 0; i < arity; i++) {
+                VariableElement parameter = parameters.get(i + 1);
+                TypeMirror type = types.erasure(parameter.asType());
+                Optional optional = parameter.getAnnotation(Optional.class);
+
+                if (i > 0) {
+                    classes.append(", ");
+                    defaults.append(", ");
+                    choices.append(", ");
+                }
+                classes.append(type).append(".class");
+                defaults.append(optional == null ? "null" : elements.getConstantExpression(optional.value()));
+                choices.append(this.choices(parameter.getAnnotation(Choices.class)));
+                arguments.append(", ").append(this.read(type, i));
+            }
+
+            boolean textEnding = arity > 0 && parameters.get(parameters.size() - 1).getAnnotation(Text.class) != null;
+            source.append("        subs.add(new sh.sagan.deimos.command.SubDeclaration(")
+                    .append(elements.getConstantExpression(method.getAnnotation(SubCommand.class).base())).append(", ")
+                    .append(method.getAnnotation(Priority.class) != null).append(", ")
+                    .append(method.getAnnotation(Async.class) != null).append(",\n")
+                    .append("                ").append(this.limiter(method)).append(",\n")
+                    .append("                new Class<?>[]{").append(classes).append("},\n")
+                    .append("                new String[]{").append(defaults).append("},\n")
+                    .append("                new String[][]{").append(choices).append("},\n")
+                    .append("                ").append(textEnding).append(",\n")
+                    .append("                (player, args) -> command.").append(method.getSimpleName())
+                    .append("(").append(arguments).append("),\n")
+                    .append("                ").append(elements.getConstantExpression(commandType + "." + method))
+                    .append("));\n");
+        }
+
+        source.append("        return subs;\n")
+                .append("    }\n")
+                .append("}\n");
+
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        try {
+            JavaFileObject file = this.processingEnv.getFiler().createSourceFile(qualifiedName, command);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source.toString());
+            }
+        } catch (IOException e) {
+            this.error(command, "Could not generate " + qualifiedName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return An expression reading the param at the index from the Arguments 'args' as the given type
+     */
+    private String read(TypeMirror type, int index) {
+        if (type.getKind().isPrimitive()) {
+            // getInt, getLong, getBoolean, ...
+            String name = type.getKind().name().toLowerCase(Locale.ROOT);
+            return "args.get" + Character.toUpperCase(name.charAt(0)) + name.substring(1) + "(" + index + ")";
+        } else if (type.getKind() == TypeKind.DECLARED && "java.lang.Object".equals(type.toString())) {
+            return "args.get(" + index + ")";
+        }
+        return "(" + type + ") args.get(" + index + ")";
+    }
+
+    private void error(Element element, String message) {
+        this.messager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private void warning(Element element, String message) {
+        this.messager().printMessage(Diagnostic.Kind.WARNING, message, element);
+    }
+
+    private Messager messager() {
+        return this.processingEnv.getMessager();
+    }
+}
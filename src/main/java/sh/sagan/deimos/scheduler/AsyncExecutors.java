@@ -0,0 +1,58 @@
+package sh.sagan.deimos.scheduler;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the executors that async sub commands run on.
+ */
+public final class AsyncExecutors {
+
+    // how many async sub commands can wait for a thread before new ones are rejected
+    private static final int QUEUE_SIZE = 1024;
+
+    private AsyncExecutors() {
+    }
+
+    /**
+     * Creates a virtual thread per task executor if the runtime supports them (Java 21+), otherwise a bounded pool.
+     *
+     * @param name The name the threads of a bounded pool get (suffixed by their number)
+     * @return The executor
+     */
+    public static ExecutorService create(String name) {
+        try {
+            // looked up reflectively since this is compiled against Java 8
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ignored) {
+            return bounded(name, Math.max(2, Runtime.getRuntime().availableProcessors()));
+        }
+    }
+
+    /**
+     * Creates a pool of at most the given number of daemon threads with a bounded queue. Tasks submitted when the
+     * queue is full are rejected rather than run on the submitting (main) thread.
+     *
+     * @param name The name the threads get (suffixed by their number)
+     * @param threads The maximum number of threads
+     * @return The executor
+     */
+    public static ExecutorService bounded(String name, int threads) {
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_SIZE), factory, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -0,0 +1,53 @@
+package sh.sagan.deimos.scheduler;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Runs sync tasks through the Bukkit scheduler and async tasks on an executor from {@link AsyncExecutors}.
+ */
+public class BukkitDeimosScheduler implements DeimosScheduler {
+
+    private final Plugin plugin;
+    private final ExecutorService async;
+
+    public BukkitDeimosScheduler(Plugin plugin, ExecutorService async) {
+        this.plugin = plugin;
+        this.async = async;
+    }
+
+    public BukkitDeimosScheduler(Plugin plugin) {
+        this(plugin, AsyncExecutors.create(plugin.getName() + "-deimos-async"));
+    }
+
+    @Override
+    public void runSync(Runnable task) {
+        if (this.isMainThread()) {
+            task.run();
+        } else {
+            Bukkit.getScheduler().runTask(this.plugin, task);
+        }
+    }
+
+    @Override
+    public void runLater(Runnable task, long ticks) {
+        Bukkit.getScheduler().runTaskLater(this.plugin, task, ticks);
+    }
+
+    @Override
+    public void runAsync(Runnable task) {
+        this.async.execute(task);
+    }
+
+    @Override
+    public boolean isMainThread() {
+        return Bukkit.isPrimaryThread();
+    }
+
+    @Override
+    public void shutdown() {
+        this.async.shutdown();
+    }
+}
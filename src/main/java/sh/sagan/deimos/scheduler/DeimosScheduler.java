@@ -0,0 +1,42 @@
+package sh.sagan.deimos.scheduler;
+
+/**
+ * Where sub commands run. Sub commands marked with {@link sh.sagan.deimos.command.annotations.Async} are handed to
+ * {@link #runAsync(Runnable)} instead of running on the thread that dispatched the command, and can get back onto the
+ * main (server) thread with {@link #runSync(Runnable)}.
+ */
+public interface DeimosScheduler {
+
+    /**
+     * Runs the task on the main thread. If this is already the main thread, the task may run right away.
+     *
+     * @param task The task to run
+     */
+    void runSync(Runnable task);
+
+    /**
+     * Runs the task on the main thread after the given number of ticks.
+     *
+     * @param task The task to run
+     * @param ticks How many ticks to wait, 0 for the next one
+     */
+    void runLater(Runnable task, long ticks);
+
+    /**
+     * Runs the task off the main thread.
+     *
+     * @param task The task to run
+     * @throws java.util.concurrent.RejectedExecutionException If there is no room left for the task
+     */
+    void runAsync(Runnable task);
+
+    /**
+     * @return Whether the current thread is the main thread
+     */
+    boolean isMainThread();
+
+    /**
+     * Stops accepting async tasks. Tasks already running are left to finish.
+     */
+    void shutdown();
+}
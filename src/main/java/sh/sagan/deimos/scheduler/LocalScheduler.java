@@ -0,0 +1,77 @@
+package sh.sagan.deimos.scheduler;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A stand-in for the server's scheduler that needs no running server: the "main thread" is a single thread owned by
+ * this scheduler. Commands dispatched from {@link #runSync(Runnable)} behave as they would on a server, which makes
+ * the whole async path (dispatch, async execution, hopping back to the main thread) runnable in a plain JVM.
+ */
+public class LocalScheduler implements DeimosScheduler {
+
+    // a tick of the server is 50ms
+    private static final long TICK_MILLIS = 50;
+
+    private final ScheduledExecutorService main;
+    private final ExecutorService async;
+    private volatile Thread mainThread;
+
+    public LocalScheduler(ExecutorService async) {
+        this.async = async;
+        this.main = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "deimos-local-main");
+            thread.setDaemon(true);
+            this.mainThread = thread;
+            return thread;
+        });
+    }
+
+    public LocalScheduler() {
+        this(AsyncExecutors.create("deimos-local-async"));
+    }
+
+    @Override
+    public void runSync(Runnable task) {
+        if (this.isMainThread()) {
+            task.run();
+        } else {
+            this.main.execute(task);
+        }
+    }
+
+    @Override
+    public void runLater(Runnable task, long ticks) {
+        this.main.schedule(task, Math.max(1, ticks) * TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void runAsync(Runnable task) {
+        this.async.execute(task);
+    }
+
+    @Override
+    public boolean isMainThread() {
+        return Thread.currentThread() == this.mainThread;
+    }
+
+    @Override
+    public void shutdown() {
+        this.async.shutdown();
+    }
+
+    /**
+     * Waits for the async tasks to finish after {@link #shutdown()}, then for the main thread tasks they queued, and
+     * stops the main thread.
+     *
+     * @return Whether everything finished in time
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        boolean asyncDone = this.async.awaitTermination(timeout, unit);
+        this.main.shutdown();
+        return asyncDone && this.main.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,84 @@
+package sh.sagan.deimos.server;
+
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandMap;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import sh.sagan.deimos.scheduler.BukkitDeimosScheduler;
+import sh.sagan.deimos.scheduler.DeimosScheduler;
+import sh.sagan.deimos.type.OnlinePlayerIndex;
+
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.logging.Level;
+
+/**
+ * The server the plugin runs on, reached through {@link Bukkit}.
+ */
+public class BukkitDeimosServer implements DeimosServer {
+
+    private final JavaPlugin plugin;
+    private final DeimosScheduler scheduler;
+    private final CommandMap commandMap;
+
+    public BukkitDeimosServer(JavaPlugin plugin) {
+        this.plugin = plugin;
+        this.scheduler = new BukkitDeimosScheduler(plugin);
+        this.commandMap = (CommandMap) this.accessPrivateField(Bukkit.getServer(), "commandMap");
+    }
+
+    public JavaPlugin getPlugin() {
+        return plugin;
+    }
+
+    @Override
+    public String getName() {
+        return this.plugin.getName();
+    }
+
+    @Override
+    public Optional<CommandMap> getCommandMap() {
+        return Optional.ofNullable(this.commandMap);
+    }
+
+    @Override
+    public Collection<? extends Player> getOnlinePlayers() {
+        return Bukkit.getOnlinePlayers();
+    }
+
+    @Override
+    public void track(OnlinePlayerIndex index) {
+        Bukkit.getPluginManager().registerEvents(index, this.plugin);
+        // players that are already online (on a reload) never fire a join event
+        index.seed(Bukkit.getOnlinePlayers());
+    }
+
+    @Override
+    public DeimosScheduler getScheduler() {
+        return scheduler;
+    }
+
+    private Object accessPrivateField(Object instance, String fieldName) {
+
+        Field field;
+        try {
+            field = instance.getClass().getDeclaredField(fieldName);
+        } catch (NoSuchFieldException e) {
+            this.plugin.getLogger().log(Level.SEVERE, "No such field '" + fieldName + "'", e);
+            return null;
+        }
+
+        Object found;
+
+        field.setAccessible(true);
+        try {
+            found = field.get(instance);
+        } catch (IllegalAccessException e) {
+            this.plugin.getLogger().log(Level.SEVERE, "Could not access private field '" + fieldName + "'", e);
+            return null;
+        }
+
+        return found;
+    }
+}
@@ -0,0 +1,38 @@
+package sh.sagan.deimos.server;
+
+import org.bukkit.command.CommandMap;
+import org.bukkit.entity.Player;
+import sh.sagan.deimos.scheduler.DeimosScheduler;
+import sh.sagan.deimos.type.OnlinePlayerIndex;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * What the {@link sh.sagan.deimos.command.DeimosCommandManager} needs from the server it runs on. On a server this is
+ * {@link BukkitDeimosServer}, {@link sh.sagan.deimos.harness.LocalServer} stands in for it in a plain JVM.
+ */
+public interface DeimosServer {
+
+    /**
+     * @return The name the commands are registered under, as the fallback prefix in the command map
+     */
+    String getName();
+
+    /**
+     * @return The command map the commands are registered into, empty if it could not be found
+     */
+    Optional<CommandMap> getCommandMap();
+
+    Collection<? extends Player> getOnlinePlayers();
+
+    /**
+     * Adds the players that are online to the index and keeps it up to date as players join and leave.
+     */
+    void track(OnlinePlayerIndex index);
+
+    /**
+     * @return Where sub commands run, see {@link DeimosScheduler}
+     */
+    DeimosScheduler getScheduler();
+}
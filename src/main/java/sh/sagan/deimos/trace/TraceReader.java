@@ -0,0 +1,101 @@
+package sh.sagan.deimos.trace;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Reads back the segments written by a {@link TraceRecorder}. The command lines of a trace can be replayed against a
+ * {@link sh.sagan.deimos.harness.LocalServer} with {@link sh.sagan.deimos.harness.CommandMix#traced(Path)}.
+ */
+public final class TraceReader {
+
+    private static final TraceRecord.Outcome[] OUTCOMES = TraceRecord.Outcome.values();
+
+    private TraceReader() {
+    }
+
+    /**
+     * Reads every record in the directory, oldest segment first and in the order the records were written within a
+     * segment. A segment is read up to its first record without a length, which is where it ends (or where a record
+     * was still being written when the segment was last flushed).
+     *
+     * @param directory The directory the recorder wrote to
+     * @param consumer Gets every record
+     * @throws IOException If a segment could not be read, or is not a segment
+     */
+    public static void read(Path directory, Consumer<TraceRecord> consumer) throws IOException {
+        for (Path segment : TraceRecorder.segments(directory)) {
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            if (buffer.limit() < TraceRecorder.HEADER || buffer.getInt(0) != TraceRecorder.MAGIC) {
+                throw new IOException("Not a trace segment: " + segment);
+            }
+
+            int position = TraceRecorder.HEADER;
+            while (position + 4 <= buffer.limit()) {
+                int length = buffer.getInt(position);
+                if (length < TraceRecorder.FIXED_LENGTH || position + length > buffer.limit()) {
+                    break;
+                }
+                consumer.accept(readRecord(buffer, position + 4));
+                position += length;
+            }
+        }
+    }
+
+    /**
+     * @return Every record in the directory, see {@link #read(Path, Consumer)}
+     */
+    public static List<TraceRecord> readAll(Path directory) throws IOException {
+        List<TraceRecord> records = new ArrayList<>();
+        read(directory, records::add);
+        return records;
+    }
+
+    private static TraceRecord readRecord(ByteBuffer buffer, int index) {
+        TraceRecord.Outcome outcome = OUTCOMES[buffer.get(index)];
+        index += 1;
+        long timestamp = buffer.getLong(index);
+        long most = buffer.getLong(index + 8);
+        long least = buffer.getLong(index + 16);
+        long matchNanos = buffer.getLong(index + 24);
+        long convertNanos = buffer.getLong(index + 32);
+        long executeNanos = buffer.getLong(index + 40);
+        index += 48;
+
+        String label = readString(buffer, index);
+        index += 2 + (buffer.getShort(index) & 0xFFFF);
+        String sub = readString(buffer, index);
+        index += 2 + (buffer.getShort(index) & 0xFFFF);
+
+        String[] args = new String[buffer.getShort(index) & 0xFFFF];
+        index += 2;
+        for (int i = 0; i < args.length; i++) {
+            args[i] = readString(buffer, index);
+            index += 2 + (buffer.getShort(index) & 0xFFFF);
+        }
+
+        UUID sender = most == 0 && least == 0 ? null : new UUID(most, least);
+        return new TraceRecord(timestamp, sender, label, args, sub.isEmpty() ? null : sub, outcome,
+                matchNanos, convertNanos, executeNanos);
+    }
+
+    private static String readString(ByteBuffer buffer, int index) {
+        byte[] bytes = new byte[buffer.getShort(index) & 0xFFFF];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(index + 2 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,126 @@
+package sh.sagan.deimos.trace;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * A dispatch as it was recorded by a {@link TraceRecorder}.
+ */
+public final class TraceRecord {
+
+    public enum Outcome {
+        /**
+         * The sub command ran (or was handed to the async scheduler)
+         */
+        EXECUTED,
+        /**
+         * No sub command accepted the args
+         */
+        UNMATCHED,
+        /**
+         * A sub command accepted the args but the sender is not a player
+         */
+        NOT_A_PLAYER,
+        /**
+         * The player ran the sub command too often
+         */
+        RATE_LIMITED,
+        /**
+         * The sub command threw
+         */
+        FAILED
+    }
+
+    private final long timestamp;
+    private final UUID sender;
+    private final String label;
+    private final String[] args;
+    private final String sub;
+    private final Outcome outcome;
+    private final long matchNanos;
+    private final long convertNanos;
+    private final long executeNanos;
+
+    TraceRecord(long timestamp, UUID sender, String label, String[] args, String sub, Outcome outcome,
+                long matchNanos, long convertNanos, long executeNanos) {
+        this.timestamp = timestamp;
+        this.sender = sender;
+        this.label = label;
+        this.args = args;
+        this.sub = sub;
+        this.outcome = outcome;
+        this.matchNanos = matchNanos;
+        this.convertNanos = convertNanos;
+        this.executeNanos = executeNanos;
+    }
+
+    /**
+     * @return When the command was dispatched, in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return The UUID of the player that ran the command, empty for other senders
+     */
+    public Optional<UUID> getSender() {
+        return Optional.ofNullable(sender);
+    }
+
+    /**
+     * @return The label the command was run with
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    public String[] getArgs() {
+        return args.clone();
+    }
+
+    /**
+     * @return The command line as it was typed, without the leading slash
+     */
+    public String getLine() {
+        return this.args.length == 0 ? this.label : this.label + " " + String.join(" ", this.args);
+    }
+
+    /**
+     * @return The signature of the sub command the args matched, empty if none did
+     */
+    public Optional<String> getSub() {
+        return Optional.ofNullable(sub);
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * @return How long finding the sub command took
+     */
+    public long getMatchNanos() {
+        return matchNanos;
+    }
+
+    /**
+     * @return How long converting the args into the values passed to the sub command took
+     */
+    public long getConvertNanos() {
+        return convertNanos;
+    }
+
+    /**
+     * @return How long running the sub command took (or handing it to the async scheduler)
+     */
+    public long getExecuteNanos() {
+        return executeNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "/" + this.getLine() + " " + this.outcome + (this.sub == null ? "" : " [" + this.sub + "]")
+                + " match=" + this.matchNanos + "ns convert=" + this.convertNanos + "ns execute=" + this.executeNanos + "ns";
+    }
+}
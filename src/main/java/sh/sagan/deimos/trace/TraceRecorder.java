@@ -0,0 +1,378 @@
+package sh.sagan.deimos.trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Records every dispatch into memory mapped segment files, for replaying real traffic offline (see
+ * {@link TraceReader}).
+ *
+ * A segment is a file of a fixed size, mapped into memory as a whole when it is created. Recording a dispatch reserves
+ * room for its record by adding the length of the record to the reserved position of the segment (a single atomic add,
+ * so threads recording at the same time each get their own range without locking) and then writes the record straight
+ * into the mapping. The length of a record is written last, and a zero length marks the end of the records of a
+ * segment (a new file is all zeros).
+ *
+ * The next segment is always mapped ahead of time. Any thread whose record does not fit in the segment anymore swaps
+ * the spare segment in with a compare and set and writes its record there, the thread that won the swap then wakes the
+ * recorder's own thread, which maps the next spare segment and deletes the oldest segment if there are more than the
+ * maximum. Recording never creates, maps or deletes a file itself and never locks. The spare counts towards the
+ * maximum, so the trace keeps one segment less than the maximum with records in it. Records are only dropped when a
+ * segment fills up before the spare after it is mapped. Records are laid out as:
+ *
+ *     int length, byte outcome, long timestamp, long sender most, long sender least,
+ *     long match nanos, long convert nanos, long execute nanos,
+ *     string label, string sub, short arg count, string args...
+ *
+ * where a string is an unsigned short byte count followed by its UTF-8 bytes, the sub is an empty string if no sub
+ * command matched and the sender is all zeros for senders that are not players.
+ */
+public final class TraceRecorder implements Closeable {
+
+    static final int MAGIC = 0x44545231;
+    static final int HEADER = 8;
+    static final String PREFIX = "trace-";
+    static final String SUFFIX = ".dtr";
+    static final int FIXED_LENGTH = 4 + 1 + 8 * 6 + 2 + 2 + 2;
+    static final int MAX_STRING = 0xFFFF;
+
+    private static final Logger LOGGER = Logger.getLogger(TraceRecorder.class.getName());
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final Deque<Path> segments = new ArrayDeque<>();
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private final AtomicReference<Segment> current = new AtomicReference<>();
+    // mapped ahead of time, null while the next one is being mapped
+    private volatile Segment spare;
+    // maps the spares, only this thread touches the files (and the fields below) once recording started
+    private final Thread preparer;
+    private int next;
+
+    /**
+     * @param directory Where the segments are written, segments already in it are kept (and count towards the maximum)
+     * @param segmentBytes The size of a segment
+     * @param maxSegments How many segments are kept at most, the oldest is deleted to make room for a new one
+     * @throws IOException If the directory or the first segment could not be created
+     */
+    public TraceRecorder(Path directory, int segmentBytes, int maxSegments) throws IOException {
+        if (segmentBytes < HEADER + FIXED_LENGTH || maxSegments < 2) {
+            throw new IllegalArgumentException("Expected at least two segments with room for a record");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = maxSegments;
+
+        Files.createDirectories(directory);
+        for (Path existing : segments(directory)) {
+            this.segments.add(existing);
+            this.next = Math.max(this.next, number(existing) + 1);
+        }
+        this.current.set(this.map());
+        this.spare = this.map();
+
+        this.preparer = new Thread(this::prepare, "deimos-trace");
+        this.preparer.setDaemon(true);
+        this.preparer.start();
+    }
+
+    /**
+     * Records a dispatch. Never blocks, the record is dropped if it can't be written right away.
+     *
+     * @param sender The UUID of the player that ran the command, null for other senders
+     * @param label The label the command was run with
+     * @param args The raw args
+     * @param sub The signature of the sub command the args matched, null if none did
+     * @return Whether the dispatch was recorded
+     */
+    public boolean record(long timestamp, UUID sender, String label, String[] args, String sub,
+                          TraceRecord.Outcome outcome, long matchNanos, long convertNanos, long executeNanos) {
+        int length = FIXED_LENGTH + utf8Length(label) + (sub == null ? 0 : utf8Length(sub));
+        for (String arg : args) {
+            length += 2 + utf8Length(arg);
+        }
+        if (length > this.segmentBytes - HEADER || args.length > MAX_STRING
+                || utf8Length(label) > MAX_STRING || (sub != null && utf8Length(sub) > MAX_STRING)) {
+            this.dropped.increment();
+            return false;
+        }
+
+        // a couple of retries, on the segments swapped in for full ones
+        for (int attempt = 0; attempt < 3; attempt++) {
+            Segment segment = this.current.get();
+            if (segment == null) {
+                break;
+            }
+
+            int position = segment.reserved.getAndAdd(length);
+            if (position >= 0 && position + length <= segment.capacity) {
+                segment.write(position, length, timestamp, sender, label, args, sub, outcome,
+                        matchNanos, convertNanos, executeNanos);
+                this.recorded.increment();
+                return true;
+            }
+
+            // the spare is read after the segment filled up, so it is the one meant to follow it
+            Segment spare = this.spare;
+            if (this.current.get() == segment) {
+                if (spare == null || spare == segment) {
+                    // filled up before the next one was mapped
+                    break;
+                }
+                if (this.current.compareAndSet(segment, spare)) {
+                    this.spare = null;
+                    LockSupport.unpark(this.preparer);
+                }
+            }
+        }
+
+        this.dropped.increment();
+        return false;
+    }
+
+    /**
+     * @return The number of dispatches recorded
+     */
+    public long getRecorded() {
+        return this.recorded.sum();
+    }
+
+    /**
+     * @return The number of dispatches that could not be recorded
+     */
+    public long getDropped() {
+        return this.dropped.sum();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Stops recording and flushes the current segment to disk. Records still being written may not make it.
+     */
+    @Override
+    public void close() {
+        Segment segment = this.current.getAndSet(null);
+        if (segment == null) {
+            return;
+        }
+
+        // the spare can't change anymore once the preparing thread is gone
+        LockSupport.unpark(this.preparer);
+        boolean interrupted = false;
+        while (this.preparer.isAlive()) {
+            try {
+                this.preparer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        segment.buffer.force();
+
+        Segment spare = this.spare;
+        this.spare = null;
+        if (spare != null) {
+            this.segments.remove(spare.path);
+            try {
+                Files.deleteIfExists(spare.path);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Could not delete unused trace segment " + spare.path, e);
+            }
+        }
+    }
+
+    /*
+    Runs on the preparing thread until the recorder is closed: maps a spare whenever the one there was is swapped in.
+    The full segment is not flushed here, the system writes its pages back on its own and waiting for that would leave
+    no spare for longer.
+     */
+    private void prepare() {
+        while (this.current.get() != null) {
+            if (this.spare != null) {
+                // woken by the swap (or by close), a wake up before parking makes this return right away
+                LockSupport.park(this);
+                continue;
+            }
+
+            try {
+                this.spare = this.map();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Could not create the next trace segment, recording stops when this one "
+                        + "is full", e);
+                return;
+            }
+        }
+    }
+
+    // creates and maps the next segment, deleting the oldest ones past the maximum
+    private Segment map() throws IOException {
+        Path path = this.directory.resolve(PREFIX + String.format("%08d", this.next++) + SUFFIX);
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // the mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, this.segmentBytes);
+        }
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, this.segmentBytes);
+
+        this.segments.add(path);
+        while (this.segments.size() > this.maxSegments) {
+            Path oldest = this.segments.poll();
+            try {
+                Files.deleteIfExists(oldest);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Could not delete old trace segment " + oldest, e);
+            }
+        }
+        return new Segment(path, buffer, this.segmentBytes);
+    }
+
+    /**
+     * @return The segments in the directory, oldest first
+     */
+    static List<Path> segments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path path : stream) {
+                if (number(path) >= 0) {
+                    segments.add(path);
+                }
+            }
+        }
+        segments.sort((a, b) -> Integer.compare(number(a), number(b)));
+        return Collections.unmodifiableList(segments);
+    }
+
+    private static int number(Path segment) {
+        String name = segment.getFileName().toString();
+        try {
+            return Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return The number of bytes the string takes in UTF-8 (unpaired surrogates take 3)
+     */
+    static int utf8Length(String string) {
+        int length = 0;
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < string.length()
+                    && Character.isLowSurrogate(string.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        // where the next record goes, past the capacity once the segment is full
+        private final AtomicInteger reserved = new AtomicInteger(HEADER);
+
+        private Segment(Path path, MappedByteBuffer buffer, int capacity) {
+            this.path = path;
+            this.buffer = buffer;
+            this.capacity = capacity;
+        }
+
+        /*
+        Only absolute puts are used, they don't touch the position of the buffer so threads writing their own ranges
+        don't interfere.
+         */
+        private void write(int position, int length, long timestamp, UUID sender, String label, String[] args,
+                           String sub, TraceRecord.Outcome outcome, long matchNanos, long convertNanos,
+                           long executeNanos) {
+            int index = position + 4;
+            this.buffer.put(index, (byte) outcome.ordinal());
+            index += 1;
+            this.buffer.putLong(index, timestamp);
+            this.buffer.putLong(index + 8, sender == null ? 0 : sender.getMostSignificantBits());
+            this.buffer.putLong(index + 16, sender == null ? 0 : sender.getLeastSignificantBits());
+            this.buffer.putLong(index + 24, matchNanos);
+            this.buffer.putLong(index + 32, convertNanos);
+            this.buffer.putLong(index + 40, executeNanos);
+            index += 48;
+            index = this.putString(index, label);
+            index = this.putString(index, sub == null ? "" : sub);
+            this.buffer.putShort(index, (short) args.length);
+            index += 2;
+            for (String arg : args) {
+                index = this.putString(index, arg);
+            }
+            // last, a reader stops at a record without a length
+            this.buffer.putInt(position, length);
+        }
+
+        private int putString(int index, String string) {
+            int start = index;
+            index += 2;
+            for (int i = 0; i < string.length(); i++) {
+                int c = string.charAt(i);
+                if (Character.isHighSurrogate((char) c) && i + 1 < string.length()
+                        && Character.isLowSurrogate(string.charAt(i + 1))) {
+                    c = Character.toCodePoint((char) c, string.charAt(++i));
+                }
+
+                if (c < 0x80) {
+                    this.buffer.put(index++, (byte) c);
+                } else if (c < 0x800) {
+                    this.buffer.put(index++, (byte) (0xC0 | (c >> 6)));
+                    this.buffer.put(index++, (byte) (0x80 | (c & 0x3F)));
+                } else if (c < 0x10000) {
+                    this.buffer.put(index++, (byte) (0xE0 | (c >> 12)));
+                    this.buffer.put(index++, (byte) (0x80 | ((c >> 6) & 0x3F)));
+                    this.buffer.put(index++, (byte) (0x80 | (c & 0x3F)));
+                } else {
+                    this.buffer.put(index++, (byte) (0xF0 | (c >> 18)));
+                    this.buffer.put(index++, (byte) (0x80 | ((c >> 12) & 0x3F)));
+                    this.buffer.put(index++, (byte) (0x80 | ((c >> 6) & 0x3F)));
+                    this.buffer.put(index++, (byte) (0x80 | (c & 0x3F)));
+                }
+            }
+            this.buffer.putShort(start, (short) (index - start - 2));
+            return index;
+        }
+    }
+}
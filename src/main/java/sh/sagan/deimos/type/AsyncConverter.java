@@ -0,0 +1,46 @@
+package sh.sagan.deimos.type;
+
+import org.bukkit.command.CommandSender;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A converter for values that take a while to look up (offline players, database rows, regions, ...) or depend on who
+ * ran the command. Matching only asks {@link #accepts(String)}, which has to be quick, and the raw args of the sub
+ * command that was chosen are then resolved with {@link #resolve(CommandSender, String)} off the main thread, all of
+ * them at the same time. The sub command runs on the main thread once every one of them is ready (see
+ * {@link sh.sagan.deimos.command.DeimosExecutor}).
+ *
+ * @param <T> The type converted to
+ */
+public interface AsyncConverter<T> extends Converter<T> {
+
+    /**
+     * The check made while matching, before anything is looked up. It decides which sub command the args are for, so
+     * it should reject raw args that can never resolve (a malformed name for example).
+     *
+     * @param arg The raw arg
+     * @return Whether the raw arg might resolve to a value. This never throws.
+     */
+    boolean accepts(String arg);
+
+    /**
+     * Looks the raw arg up. This is called off the main thread and may block, or return a future completed by
+     * something else (a database driver for example).
+     *
+     * @param sender Who ran the command
+     * @param arg A raw arg {@link #accepts(String) accepted} by this converter
+     * @return The value, empty if there is none for the raw arg
+     */
+    CompletableFuture<Optional<T>> resolve(CommandSender sender, String arg);
+
+    /**
+     * Resolves the raw arg without a sender and waits for it. Dispatching never calls this, it is only here for code
+     * that uses converters directly and can afford to wait.
+     */
+    @Override
+    default Optional<T> convert(String arg) {
+        return this.accepts(arg) ? this.resolve(null, arg).join() : Optional.empty();
+    }
+}
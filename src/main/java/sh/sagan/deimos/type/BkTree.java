@@ -0,0 +1,236 @@
+package sh.sagan.deimos.type;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An immutable BK-tree over strings, for finding the strings closest to a misspelled one without comparing it against
+ * all of them. The distance is the edit distance ignoring case, counting an insertion, deletion, substitution or swap
+ * of two neighbouring characters as one edit.
+ *
+ * Every node of the tree is a string, and its children are keyed by their distance to it. By the triangle inequality,
+ * a string within k edits of the query can only be under a child whose distance lies in [d - k, d + k], d being the
+ * distance from the query to the node, so a search only descends into those children. (Counting swaps breaks the
+ * triangle inequality in rare cases, which can only make a search miss a string, never find a wrong one.) The nodes
+ * are kept as parallel arrays (first child, next sibling, distance to the parent) and a search can be capped at a
+ * number of nodes visited, making a lookup bounded no matter how many strings there are.
+ */
+public final class BkTree {
+
+    private final String[] words;
+    // the words with their case folded, compared without folding every character again
+    private final char[][] keys;
+    private final int[] firstChild;
+    private final int[] nextSibling;
+    private final int[] edge;
+    private final int size;
+
+    /**
+     * @param words The strings to index, strings equal to one already indexed (ignoring case) are skipped
+     */
+    public BkTree(Collection<String> words) {
+        int capacity = words.size();
+        this.words = new String[capacity];
+        this.keys = new char[capacity][];
+        this.firstChild = new int[capacity];
+        this.nextSibling = new int[capacity];
+        this.edge = new int[capacity];
+        Arrays.fill(this.firstChild, -1);
+        Arrays.fill(this.nextSibling, -1);
+
+        int size = 0;
+        Rows rows = new Rows();
+        OUTER:
+        for (String word : words) {
+            char[] key = fold(word);
+            if (size == 0) {
+                this.words[0] = word;
+                this.keys[size++] = key;
+                continue;
+            }
+
+            int node = 0;
+            while (true) {
+                int distance = rows.distance(key, this.keys[node]);
+                if (distance == 0) {
+                    continue OUTER;
+                }
+
+                int child = this.firstChild[node];
+                while (child != -1 && this.edge[child] != distance) {
+                    child = this.nextSibling[child];
+                }
+                if (child == -1) {
+                    this.words[size] = word;
+                    this.keys[size] = key;
+                    this.edge[size] = distance;
+                    this.nextSibling[size] = this.firstChild[node];
+                    this.firstChild[node] = size++;
+                    continue OUTER;
+                }
+                node = child;
+            }
+        }
+        this.size = size;
+    }
+
+    /**
+     * Looks for the indexed strings within a distance of the query. Once a string is found the search only looks for
+     * strings at most as far as it, and the children closest to the distance of the query are visited first, so a
+     * capped search spends its visits where the closest strings most likely are.
+     *
+     * @param query The string to look for
+     * @param maxDistance The most edits a string found can be away from the query
+     * @param maxVisits The most strings the query is compared against, the search stops there with what it found so
+     *                  far
+     * @param hits Where the strings found are added
+     * @return The number of strings the query was compared against
+     */
+    public int search(String query, int maxDistance, int maxVisits, List<Hit> hits) {
+        if (this.size == 0 || maxVisits <= 0) {
+            return 0;
+        }
+
+        char[] key = fold(query);
+        Rows rows = new Rows();
+        int[] stack = new int[this.size];
+        int top = 0;
+        stack[top++] = 0;
+
+        int limit = maxDistance;
+        int visits = 0;
+        while (top > 0 && visits < maxVisits) {
+            int node = stack[--top];
+            visits++;
+
+            int distance = rows.distance(key, this.keys[node]);
+            if (distance <= limit) {
+                hits.add(new Hit(this.words[node], distance));
+                limit = distance;
+            }
+
+            int pushed = top;
+            for (int child = this.firstChild[node]; child != -1; child = this.nextSibling[child]) {
+                if (Math.abs(this.edge[child] - distance) <= limit) {
+                    stack[top++] = child;
+                }
+            }
+
+            // the children just pushed are sorted so the one closest to the distance of the query is popped first
+            for (int i = pushed + 1; i < top; i++) {
+                int child = stack[i];
+                int gap = Math.abs(this.edge[child] - distance);
+                int j = i - 1;
+                while (j >= pushed && Math.abs(this.edge[stack[j]] - distance) < gap) {
+                    stack[j + 1] = stack[j];
+                    j--;
+                }
+                stack[j + 1] = child;
+            }
+        }
+        return visits;
+    }
+
+    /**
+     * @return The edit distance between the strings ignoring case, counting a swap of two neighbouring characters as
+     * one edit
+     */
+    public static int distance(String a, String b) {
+        return new Rows().distance(fold(a), fold(b));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static char[] fold(String word) {
+        char[] key = new char[word.length()];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = Character.toLowerCase(Character.toUpperCase(word.charAt(i)));
+        }
+        return key;
+    }
+
+    /**
+     * The rows of the edit distance table, reused between the words one search compares.
+     */
+    private static final class Rows {
+        private int[] before = new int[0];
+        private int[] previous = new int[0];
+        private int[] current = new int[0];
+
+        private int distance(char[] a, char[] b) {
+            /*
+            The usual dynamic program over prefixes of both strings, keeping only the last three rows:
+
+                d[i][j] = min(d[i - 1][j] + 1, d[i][j - 1] + 1, d[i - 1][j - 1] + (a[i] != b[j]),
+                              d[i - 2][j - 2] + 1 if a[i] == b[j - 1] and a[i - 1] == b[j])
+             */
+            int n = a.length;
+            int m = b.length;
+            if (this.current.length <= m) {
+                this.before = new int[m + 1];
+                this.previous = new int[m + 1];
+                this.current = new int[m + 1];
+            }
+            int[] before = this.before;
+            int[] previous = this.previous;
+            int[] current = this.current;
+            for (int j = 0; j <= m; j++) {
+                previous[j] = j;
+            }
+
+            for (int i = 1; i <= n; i++) {
+                current[0] = i;
+                char ca = a[i - 1];
+                for (int j = 1; j <= m; j++) {
+                    char cb = b[j - 1];
+                    int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1),
+                            previous[j - 1] + (ca == cb ? 0 : 1));
+                    if (i > 1 && j > 1 && ca == b[j - 2] && a[i - 2] == cb) {
+                        value = Math.min(value, before[j - 2] + 1);
+                    }
+                    current[j] = value;
+                }
+
+                int[] recycled = before;
+                before = previous;
+                previous = current;
+                current = recycled;
+            }
+
+            // keep the rows for the next comparison, in whatever order they ended up
+            this.before = before;
+            this.previous = previous;
+            this.current = current;
+            return previous[m];
+        }
+    }
+
+    /**
+     * A string found by a search and how far it is from the query.
+     */
+    public static final class Hit {
+        private final String word;
+        private final int distance;
+
+        public Hit(String word, int distance) {
+            this.word = word;
+            this.distance = distance;
+        }
+
+        public String getWord() {
+            return word;
+        }
+
+        public int getDistance() {
+            return distance;
+        }
+
+        @Override
+        public String toString() {
+            return word + " (" + distance + ")";
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package sh.sagan.deimos.type;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable, case insensitive lookup table over a fixed set of names, for converters of enum like types. The names
+ * are hashed into an open addressed table (linear probing, at most half full) with a hash that ignores case, so a
+ * lookup hashes the raw arg once and compares it against one or two names, without lower casing (or copying) it. The
+ * names are also kept in a {@link PrefixIndex} for tab completion.
+ *
+ * @param <T> The type of the values the names map to
+ */
+public final class ChoiceTable<T> {
+
+    private final String[] keys;
+    private final Object[] values;
+    private final int mask;
+    private final PrefixIndex index;
+    private final int tokenClasses;
+
+    /**
+     * @param names The names, if two are equal ignoring case the first one is kept
+     * @param values The value of each name
+     */
+    public ChoiceTable(String[] names, T[] values) {
+        if (names.length != values.length) {
+            throw new IllegalArgumentException("Expected a value per name");
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(1, names.length) * 2 - 1) << 1;
+        this.keys = new String[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+
+        int tokenClasses = 0;
+        for (int i = 0; i < names.length; i++) {
+            int slot = hash(names[i]) & this.mask;
+            while (this.keys[slot] != null && !this.keys[slot].equalsIgnoreCase(names[i])) {
+                slot = (slot + 1) & this.mask;
+            }
+            if (this.keys[slot] == null) {
+                this.keys[slot] = names[i];
+                this.values[slot] = values[i];
+                tokenClasses |= TokenClass.of(names[i]).bit();
+            }
+        }
+
+        this.index = new PrefixIndex(Arrays.asList(names));
+        this.tokenClasses = tokenClasses;
+    }
+
+    /**
+     * @param name A name, case is ignored
+     * @return The value of the name, null if there is no such name
+     */
+    @SuppressWarnings("unchecked")
+    public T get(String name) {
+        int slot = hash(name) & this.mask;
+        for (String key = this.keys[slot]; key != null; key = this.keys[slot]) {
+            if (key.length() == name.length() && key.equalsIgnoreCase(name)) {
+                return (T) this.values[slot];
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        return null;
+    }
+
+    /**
+     * @param prefix The start of a name, case is ignored
+     * @return The names starting with the prefix, in order
+     */
+    public List<String> complete(String prefix) {
+        return this.index.startingWith(prefix);
+    }
+
+    /**
+     * @return The mask of the {@link TokenClass}es of the names, a raw arg of any other class can't be one of them
+     */
+    public int getTokenClasses() {
+        return tokenClasses;
+    }
+
+    private static int hash(String name) {
+        int hash = 0;
+        for (int i = 0; i < name.length(); i++) {
+            hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+        }
+        // spread the high bits down, the table only uses the low ones
+        return hash ^ (hash >>> 16);
+    }
+}
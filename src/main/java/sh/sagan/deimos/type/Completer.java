@@ -0,0 +1,24 @@
+package sh.sagan.deimos.type;
+
+import java.util.List;
+
+/**
+ * Something that can suggest raw args for a param while a player is typing it. A {@link Converter} that also
+ * implements this is used to tab complete every param of its type.
+ */
+public interface Completer {
+
+    /**
+     * @param prefix What the player typed of the arg so far, possibly empty
+     * @return The suggestions starting with the prefix (ignoring case)
+     */
+    List<String> complete(String prefix);
+
+    /**
+     * @return Whether the suggestions for a prefix stay the same over time and can be cached. Completers over
+     * something that changes while the server runs (online players for example) should return false.
+     */
+    default boolean isCacheable() {
+        return true;
+    }
+}
@@ -4,4 +4,38 @@ import java.util.Optional;
 
 public interface Converter<T> {
     Optional<T> convert(String arg);
+
+    /**
+     * Whether this converter accepts or rejects a raw arg based on nothing but its {@link TokenClass}: any two raw args
+     * of the same class are either both accepted or both rejected, now and later. Dispatching remembers which sub
+     * command the args of a command matched by the classes of the args, which is only safe when every converter that
+     * was checked is stateless. A converter looking something up (online players, worlds, ...) is not.
+     *
+     * @return Whether acceptance only depends on the class of the raw arg, false by default
+     */
+    default boolean isStateless() {
+        return false;
+    }
+
+    /**
+     * Whether this converter accepts or rejects a raw arg based on nothing but the raw arg itself: the same raw arg is
+     * always either accepted or rejected, now and later. Stateless converters are, and so are converters of a fixed
+     * set of names (enums, @Choices) even though they are not stateless. Whether such a converter accepts each raw arg
+     * is made part of the shape of the args, so args going through it are still only resolved once per shape.
+     *
+     * @return Whether acceptance only depends on the raw arg, {@link #isStateless()} by default
+     */
+    default boolean isDeterministic() {
+        return this.isStateless();
+    }
+
+    /**
+     * The {@link TokenClass}es of the raw args this converter can possibly accept. Raw args of any other class are
+     * rejected without calling the converter.
+     *
+     * @return A mask of token classes, {@link TokenClass#ALL} by default
+     */
+    default int acceptedClasses() {
+        return TokenClass.ALL;
+    }
 }
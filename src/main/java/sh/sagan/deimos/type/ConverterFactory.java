@@ -0,0 +1,18 @@
+package sh.sagan.deimos.type;
+
+import java.util.Optional;
+
+/**
+ * Creates converters for a whole family of types (every enum, every subtype of some interface, ...) instead of
+ * registering one converter per type. The {@link TypeRegistry} asks its factories for a type that has no converter
+ * registered for it exactly, the result is cached per type.
+ */
+@FunctionalInterface
+public interface ConverterFactory {
+
+    /**
+     * @param type The type a converter is needed for
+     * @return A converter for the type, empty if the type is not part of the family this factory handles
+     */
+    Optional<Converter<?>> create(Class<?> type);
+}
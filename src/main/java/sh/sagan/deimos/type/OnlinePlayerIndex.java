@@ -0,0 +1,125 @@
+package sh.sagan.deimos.type;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * An index of the online players by name, kept up to date by listening to joins and quits. Looking a player up by
+ * name through the server goes over every online player, this is a hash lookup for exact names and a walk over only the
+ * names starting with the given one for partial names. Names are case insensitive.
+ *
+ * Both maps are concurrent so lookups can be made from @Async sub commands too.
+ */
+public class OnlinePlayerIndex implements Listener {
+
+    private final Map<String, Player> exact = new ConcurrentHashMap<>();
+    private final NavigableMap<String, Player> sorted = new ConcurrentSkipListMap<>();
+
+    /**
+     * Adds every given player, this is how the index is filled with the players that were online before it started
+     * listening.
+     */
+    public void seed(Collection<? extends Player> players) {
+        for (Player player : players) {
+            this.add(player);
+        }
+    }
+
+    public void add(Player player) {
+        String key = key(player.getName());
+        this.exact.put(key, player);
+        this.sorted.put(key, player);
+    }
+
+    public void remove(Player player) {
+        String key = key(player.getName());
+        this.exact.remove(key, player);
+        this.sorted.remove(key, player);
+    }
+
+    /**
+     * @param name The full name of the player, case is ignored
+     * @return The online player with the name
+     */
+    public Optional<Player> getExact(String name) {
+        return Optional.ofNullable(this.exact.get(key(name)));
+    }
+
+    /**
+     * Finds a player the same way the server does: the player with exactly the given name, otherwise the player with
+     * the shortest name starting with it.
+     *
+     * @param name The full or partial name of the player, case is ignored
+     * @return The matching online player
+     */
+    public Optional<Player> match(String name) {
+        String key = key(name);
+        Player found = this.exact.get(key);
+        if (found != null) {
+            return Optional.of(found);
+        }
+
+        int shortest = Integer.MAX_VALUE;
+        for (Map.Entry<String, Player> entry : this.prefixed(key).entrySet()) {
+            int length = entry.getKey().length();
+            if (length < shortest) {
+                shortest = length;
+                found = entry.getValue();
+                // an exact match was already ruled out, nothing can be shorter than one more character
+                if (length == key.length() + 1) {
+                    break;
+                }
+            }
+        }
+        return Optional.ofNullable(found);
+    }
+
+    /**
+     * @param prefix The start of a name, case is ignored
+     * @return The names of the online players starting with the prefix, in order (ignoring case)
+     */
+    public List<String> complete(String prefix) {
+        List<String> names = new ArrayList<>();
+        for (Player player : this.prefixed(key(prefix)).values()) {
+            names.add(player.getName());
+        }
+        return names;
+    }
+
+    public int size() {
+        return this.exact.size();
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onJoin(PlayerJoinEvent event) {
+        this.add(event.getPlayer());
+    }
+
+    // monitor so that the player can still be found by name by other quit listeners
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        this.remove(event.getPlayer());
+    }
+
+    private NavigableMap<String, Player> prefixed(String key) {
+        return this.sorted.subMap(key, true, key + Character.MAX_VALUE, false);
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
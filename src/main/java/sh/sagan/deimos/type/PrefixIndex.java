@@ -0,0 +1,65 @@
+package sh.sagan.deimos.type;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * An immutable, sorted index of strings for case insensitive prefix lookups. The strings are kept sorted by their
+ * lower cased form, so all the strings starting with a prefix are next to each other: a lookup is a binary search for
+ * the first one followed by a walk until the prefix stops matching, never a scan of the whole index.
+ */
+public final class PrefixIndex {
+
+    private final String[] keys;
+    private final String[] values;
+
+    public PrefixIndex(Collection<String> values) {
+        String[] sorted = values.toArray(new String[0]);
+        Arrays.sort(sorted, Comparator.comparing(value -> value.toLowerCase(Locale.ROOT)));
+
+        this.values = sorted;
+        this.keys = new String[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            this.keys[i] = sorted[i].toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * @param prefix The prefix to look up, case is ignored
+     * @return The indexed strings starting with the prefix, in sorted order
+     */
+    public List<String> startingWith(String prefix) {
+        String key = prefix.toLowerCase(Locale.ROOT);
+
+        // lower bound: the first key that is not less than the prefix
+        int low = 0;
+        int high = this.keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (this.keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        int end = low;
+        while (end < this.keys.length && this.keys[end].startsWith(key)) {
+            end++;
+        }
+
+        if (low == end) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(Arrays.asList(this.values).subList(low, end));
+    }
+
+    public int size() {
+        return this.values.length;
+    }
+}
@@ -0,0 +1,31 @@
+package sh.sagan.deimos.type;
+
+/**
+ * A converter for a type that has a primitive form (int, long, double, ...). These converters can check a raw arg and
+ * parse it without throwing or boxing, which is what the matcher and invoker use when a param is declared with the
+ * primitive type. {@link #convert(String)} is still there for params declared with the wrapper type.
+ *
+ * @param <T> The wrapper type
+ */
+public interface PrimitiveConverter<T> extends Converter<T> {
+
+    /**
+     * @return The primitive type this converter parses to (int.class, long.class, ...)
+     */
+    Class<?> primitiveType();
+
+    /**
+     * @param arg The raw arg
+     * @return Whether the raw arg can be parsed by this converter. This never throws.
+     */
+    boolean accepts(String arg);
+
+    /**
+     * Parses a raw arg that was {@link #accepts(String) accepted} into its primitive value, encoded into a long the way
+     * {@link sh.sagan.deimos.command.Arguments} stores values of the {@link #primitiveType()}.
+     *
+     * @param arg A raw arg accepted by this converter
+     * @return The encoded value
+     */
+    long parseBits(String arg);
+}
@@ -0,0 +1,76 @@
+package sh.sagan.deimos.type;
+
+import sh.sagan.deimos.type.converters.Numbers;
+
+/**
+ * The lexical class of a raw arg. The classes don't overlap and they are fine grained enough that each of the built in
+ * converters of numbers, booleans and strings accepts or rejects a raw arg based on its class alone (see
+ * {@link Converter#isStateless()}). Converters of a fixed set of names (enums, @Choices) still use the classes to rule
+ * raw args out early, but accept the names by value (see {@link Converter#isDeterministic()}).
+ *
+ * Sets of classes are kept as bit masks (bit n is the class with ordinal n), a converter declares the classes it can
+ * accept with {@link Converter#acceptedClasses()} so a raw arg can be ruled out with an AND before converting it.
+ */
+public enum TokenClass {
+    // a base 10 integer that fits in an int
+    INT,
+    // a base 10 integer that fits in a long but not in an int
+    LONG,
+    // any other plain decimal number ("2.5", "1e3", integers too big for a long)
+    DECIMAL,
+    // "true" or "false", in any case
+    BOOLEAN,
+    // a UUID in its standard 8-4-4-4-12 hex form
+    UUID,
+    // anything else
+    WORD;
+
+    /**
+     * The mask with every class in it.
+     */
+    public static final int ALL = (1 << values().length) - 1;
+
+    public int bit() {
+        return 1 << this.ordinal();
+    }
+
+    public static int mask(TokenClass... classes) {
+        int mask = 0;
+        for (TokenClass tokenClass : classes) {
+            mask |= tokenClass.bit();
+        }
+        return mask;
+    }
+
+    public static TokenClass of(String arg) {
+        if (Numbers.isInteger(arg, Integer.MIN_VALUE, Integer.MAX_VALUE)) {
+            return INT;
+        } else if (Numbers.isInteger(arg, Long.MIN_VALUE, Long.MAX_VALUE)) {
+            return LONG;
+        } else if (Numbers.isDecimal(arg)) {
+            return DECIMAL;
+        } else if (arg.equalsIgnoreCase("true") || arg.equalsIgnoreCase("false")) {
+            return BOOLEAN;
+        } else if (isUuid(arg)) {
+            return UUID;
+        }
+        return WORD;
+    }
+
+    private static boolean isUuid(String arg) {
+        if (arg.length() != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = arg.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (Character.digit(c, 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
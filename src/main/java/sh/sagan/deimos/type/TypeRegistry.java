@@ -2,17 +2,38 @@ package sh.sagan.deimos.type;
 
 import org.bukkit.entity.Player;
 import sh.sagan.deimos.type.converters.BooleanConverter;
-import sh.sagan.deimos.type.converters.IntegerConverter;
+import sh.sagan.deimos.type.converters.DoubleConverter;
+import sh.sagan.deimos.type.converters.EnumConverter;
+import sh.sagan.deimos.type.converters.FloatConverter;
+import sh.sagan.deimos.type.converters.IntConverter;
+import sh.sagan.deimos.type.converters.LongConverter;
 import sh.sagan.deimos.type.converters.OnlinePlayerConverter;
 import sh.sagan.deimos.type.converters.StringConverter;
 
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class TypeRegistry {
 
     private final Map<Class<?>, Converter<?>> converters = new ConcurrentHashMap<>();
+    private final List<ConverterFactory> factories = new CopyOnWriteArrayList<>();
+    private final OnlinePlayerIndex onlinePlayers = new OnlinePlayerIndex();
+
+    /*
+    The converter every class resolves to is cached in a ClassValue, so resolving a class again is a single read of a
+    field the JVM keeps on the class. Registering anything swaps in a new, empty ClassValue: the resolution of every
+    class could have changed and the old cached values are dropped with the old ClassValue.
+     */
+    private volatile ClassValue<Optional<Converter<?>>> resolved = this.newResolver();
 
     public TypeRegistry() {
         this.registerDefaultConverters();
@@ -20,24 +41,130 @@ public class TypeRegistry {
 
     public <T> void register(Class<T> clazz, Converter<T> converter) {
         this.converters.put(clazz, converter);
+        this.invalidate();
+    }
+
+    /**
+     * Registers a factory for a family of types, it is asked for a converter for any type that has no converter
+     * registered for it exactly. Factories are asked in the order they were registered.
+     */
+    public void registerFactory(ConverterFactory factory) {
+        this.factories.add(factory);
+        this.invalidate();
     }
 
+    /**
+     * @return The converters registered for exact types, this map can't be modified (use the register methods)
+     */
     public Map<Class<?>, Converter<?>> converters() {
-        return this.converters;
+        return Collections.unmodifiableMap(this.converters);
     }
 
     public Converter<?> getConverterOrDefault(Class<?> clazz) {
-        return this.converters.get(clazz) == null ? converters.get(String.class) : this.converters.get(clazz);
+        Optional<Converter<?>> converter = this.resolved.get(clazz);
+        return converter.isPresent() ? converter.get() : this.converters.get(String.class);
     }
 
+    /**
+     * Resolves the converter for a type, in order:
+     *
+     *     - the converter registered for exactly the type
+     *     - the first converter the factories create for the type
+     *     - the converter registered for the nearest superclass of the type
+     *     - the converter registered for the nearest interface of the type (breadth first, the interfaces of the type
+     *       itself before the ones of its superclasses)
+     *
+     * @return The converter for the type, empty if there is none
+     */
     public Optional<Converter<?>> getConverter(Class<?> clazz) {
-        return Optional.ofNullable(this.converters.get(clazz));
+        return this.resolved.get(clazz);
+    }
+
+    private Optional<Converter<?>> resolve(Class<?> type) {
+        Converter<?> converter = this.converters.get(type);
+        if (converter != null || type.isPrimitive()) {
+            return Optional.ofNullable(converter);
+        }
+
+        for (ConverterFactory factory : this.factories) {
+            Optional<Converter<?>> created = factory.create(type);
+            if (created.isPresent()) {
+                return created;
+            }
+        }
+
+        for (Class<?> superclass = type.getSuperclass(); superclass != null; superclass = superclass.getSuperclass()) {
+            converter = this.converters.get(superclass);
+            if (converter != null) {
+                return Optional.of(converter);
+            }
+        }
+
+        Deque<Class<?>> queue = new ArrayDeque<>();
+        Set<Class<?>> seen = new HashSet<>();
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            queue.addAll(Arrays.asList(current.getInterfaces()));
+        }
+        while (!queue.isEmpty()) {
+            Class<?> current = queue.poll();
+            if (!seen.add(current)) {
+                continue;
+            }
+            converter = this.converters.get(current);
+            if (converter != null) {
+                return Optional.of(converter);
+            }
+            queue.addAll(Arrays.asList(current.getInterfaces()));
+        }
+
+        return Optional.empty();
+    }
+
+    private void invalidate() {
+        this.resolved = this.newResolver();
+    }
+
+    private ClassValue<Optional<Converter<?>>> newResolver() {
+        return new ClassValue<Optional<Converter<?>>>() {
+            @Override
+            protected Optional<Converter<?>> computeValue(Class<?> type) {
+                return TypeRegistry.this.resolve(type);
+            }
+        };
+    }
+
+    /**
+     * @return The index of online players the Player converter looks players up in, it has to be registered as a
+     * listener (and seeded) to be kept up to date
+     */
+    public OnlinePlayerIndex getOnlinePlayers() {
+        return onlinePlayers;
+    }
+
+    /**
+     * Registers a converter for a type that has a primitive form under both the primitive and the wrapper type, so that
+     * params can be declared as either (int or Integer).
+     */
+    public <T> void registerPrimitive(Class<T> wrapper, PrimitiveConverter<T> converter) {
+        this.converters.put(wrapper, converter);
+        this.converters.put(converter.primitiveType(), converter);
+        this.invalidate();
     }
 
     public void registerDefaultConverters() {
-        this.register(Boolean.class, new BooleanConverter());
         this.register(String.class, new StringConverter());
-        this.register(Integer.class, new IntegerConverter());
-        // this.register(Player.class, new OnlinePlayerConverter());
+        this.registerPrimitive(Boolean.class, new BooleanConverter());
+        this.registerPrimitive(Integer.class, new IntConverter());
+        this.registerPrimitive(Long.class, new LongConverter());
+        this.registerPrimitive(Double.class, new DoubleConverter());
+        this.registerPrimitive(Float.class, new FloatConverter());
+        this.register(Player.class, new OnlinePlayerConverter(this.onlinePlayers));
+        // every enum gets its own converter the first time it's resolved, unless one is registered for it
+        this.registerFactory(TypeRegistry::createEnumConverter);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Optional<Converter<?>> createEnumConverter(Class<?> clazz) {
+        return clazz.isEnum() ? Optional.of(new EnumConverter(clazz)) : Optional.empty();
     }
 }
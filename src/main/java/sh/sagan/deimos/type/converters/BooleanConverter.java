@@ -1,10 +1,17 @@
 package sh.sagan.deimos.type.converters;
 
-import sh.sagan.deimos.type.Converter;
+import sh.sagan.deimos.type.Completer;
+import sh.sagan.deimos.type.PrefixIndex;
+import sh.sagan.deimos.type.PrimitiveConverter;
+import sh.sagan.deimos.type.TokenClass;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
-public class BooleanConverter implements Converter<Boolean> {
+public class BooleanConverter implements PrimitiveConverter<Boolean>, Completer {
+
+    private static final PrefixIndex VALUES = new PrefixIndex(Arrays.asList("true", "false"));
 
     @Override
     public Optional<Boolean> convert(String arg) {
@@ -14,4 +21,34 @@ public class BooleanConverter implements Converter<Boolean> {
             return Optional.of(false);
         } else return Optional.empty();
     }
+
+    @Override
+    public Class<?> primitiveType() {
+        return boolean.class;
+    }
+
+    @Override
+    public boolean accepts(String arg) {
+        return arg.equalsIgnoreCase("true") || arg.equalsIgnoreCase("false");
+    }
+
+    @Override
+    public long parseBits(String arg) {
+        return arg.equalsIgnoreCase("true") ? 1 : 0;
+    }
+
+    @Override
+    public List<String> complete(String prefix) {
+        return VALUES.startingWith(prefix);
+    }
+
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
+
+    @Override
+    public int acceptedClasses() {
+        return TokenClass.BOOLEAN.bit();
+    }
 }
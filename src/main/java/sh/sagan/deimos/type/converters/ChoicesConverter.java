@@ -0,0 +1,48 @@
+package sh.sagan.deimos.type.converters;
+
+import sh.sagan.deimos.type.ChoiceTable;
+import sh.sagan.deimos.type.Completer;
+import sh.sagan.deimos.type.Converter;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Converts raw args that are one of a fixed set of strings (ignoring case) to that string as it was given. This is the
+ * converter of params with a {@link sh.sagan.deimos.command.annotations.Choices} annotation.
+ */
+public class ChoicesConverter implements Converter<String>, Completer {
+
+    private final ChoiceTable<String> choices;
+
+    public ChoicesConverter(String... choices) {
+        this.choices = new ChoiceTable<>(choices, choices);
+    }
+
+    @Override
+    public Optional<String> convert(String arg) {
+        return Optional.ofNullable(this.choices.get(arg));
+    }
+
+    // the names are accepted by value, two raw args of the same token class can go either way
+    @Override
+    public boolean isStateless() {
+        return false;
+    }
+
+    // but the same raw arg always goes the same way
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
+    @Override
+    public int acceptedClasses() {
+        return this.choices.getTokenClasses();
+    }
+
+    @Override
+    public List<String> complete(String prefix) {
+        return this.choices.complete(prefix);
+    }
+}
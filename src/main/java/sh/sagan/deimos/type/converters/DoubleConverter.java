@@ -0,0 +1,39 @@
+package sh.sagan.deimos.type.converters;
+
+import sh.sagan.deimos.type.PrimitiveConverter;
+import sh.sagan.deimos.type.TokenClass;
+
+import java.util.Optional;
+
+public class DoubleConverter implements PrimitiveConverter<Double> {
+
+    @Override
+    public Optional<Double> convert(String arg) {
+        return this.accepts(arg) ? Optional.of(Double.parseDouble(arg)) : Optional.empty();
+    }
+
+    @Override
+    public Class<?> primitiveType() {
+        return double.class;
+    }
+
+    @Override
+    public boolean accepts(String arg) {
+        return Numbers.isDecimal(arg);
+    }
+
+    @Override
+    public long parseBits(String arg) {
+        return Double.doubleToRawLongBits(Double.parseDouble(arg));
+    }
+
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
+
+    @Override
+    public int acceptedClasses() {
+        return TokenClass.mask(TokenClass.INT, TokenClass.LONG, TokenClass.DECIMAL);
+    }
+}
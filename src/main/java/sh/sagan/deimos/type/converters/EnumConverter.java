@@ -0,0 +1,53 @@
+package sh.sagan.deimos.type.converters;
+
+import sh.sagan.deimos.type.ChoiceTable;
+import sh.sagan.deimos.type.Completer;
+import sh.sagan.deimos.type.Converter;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Converts raw args to the constant of an enum with that name, ignoring case. The TypeRegistry creates one of these
+ * for every enum param.
+ */
+public class EnumConverter<E extends Enum<E>> implements Converter<E>, Completer {
+
+    private final ChoiceTable<E> constants;
+
+    public EnumConverter(Class<E> type) {
+        E[] values = type.getEnumConstants();
+        String[] names = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            names[i] = values[i].name();
+        }
+        this.constants = new ChoiceTable<>(names, values);
+    }
+
+    @Override
+    public Optional<E> convert(String arg) {
+        return Optional.ofNullable(this.constants.get(arg));
+    }
+
+    // the names are accepted by value, two raw args of the same token class can go either way
+    @Override
+    public boolean isStateless() {
+        return false;
+    }
+
+    // but the same raw arg always goes the same way
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
+    @Override
+    public int acceptedClasses() {
+        return this.constants.getTokenClasses();
+    }
+
+    @Override
+    public List<String> complete(String prefix) {
+        return this.constants.complete(prefix);
+    }
+}
@@ -0,0 +1,39 @@
+package sh.sagan.deimos.type.converters;
+
+import sh.sagan.deimos.type.PrimitiveConverter;
+import sh.sagan.deimos.type.TokenClass;
+
+import java.util.Optional;
+
+public class FloatConverter implements PrimitiveConverter<Float> {
+
+    @Override
+    public Optional<Float> convert(String arg) {
+        return this.accepts(arg) ? Optional.of(Float.parseFloat(arg)) : Optional.empty();
+    }
+
+    @Override
+    public Class<?> primitiveType() {
+        return float.class;
+    }
+
+    @Override
+    public boolean accepts(String arg) {
+        return Numbers.isDecimal(arg);
+    }
+
+    @Override
+    public long parseBits(String arg) {
+        return Float.floatToRawIntBits(Float.parseFloat(arg));
+    }
+
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
+
+    @Override
+    public int acceptedClasses() {
+        return TokenClass.mask(TokenClass.INT, TokenClass.LONG, TokenClass.DECIMAL);
+    }
+}
@@ -0,0 +1,39 @@
+package sh.sagan.deimos.type.converters;
+
+import sh.sagan.deimos.type.PrimitiveConverter;
+import sh.sagan.deimos.type.TokenClass;
+
+import java.util.Optional;
+
+public class IntConverter implements PrimitiveConverter<Integer> {
+
+    @Override
+    public Optional<Integer> convert(String arg) {
+        return this.accepts(arg) ? Optional.of(Integer.parseInt(arg)) : Optional.empty();
+    }
+
+    @Override
+    public Class<?> primitiveType() {
+        return int.class;
+    }
+
+    @Override
+    public boolean accepts(String arg) {
+        return Numbers.isInteger(arg, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public long parseBits(String arg) {
+        return Integer.parseInt(arg);
+    }
+
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
+
+    @Override
+    public int acceptedClasses() {
+        return TokenClass.INT.bit();
+    }
+}
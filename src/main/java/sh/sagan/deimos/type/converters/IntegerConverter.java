@@ -1,19 +1,9 @@
 package sh.sagan.deimos.type.converters;
 
-import sh.sagan.deimos.type.Converter;
-
-import java.util.Optional;
-
-public class IntegerConverter implements Converter<Integer> {
-
-    @Override
-    public Optional<Integer> convert(String arg) {
-        int value;
-        try {
-            value = Integer.parseInt(arg);
-        } catch (NumberFormatException ignored) {
-            return Optional.empty();
-        }
-        return Optional.of(value);
-    }
+/**
+ * @deprecated Use {@link IntConverter}, which is what the {@link sh.sagan.deimos.type.TypeRegistry} registers for both
+ * int and Integer params.
+ */
+@Deprecated
+public class IntegerConverter extends IntConverter {
 }
@@ -0,0 +1,39 @@
+package sh.sagan.deimos.type.converters;
+
+import sh.sagan.deimos.type.PrimitiveConverter;
+import sh.sagan.deimos.type.TokenClass;
+
+import java.util.Optional;
+
+public class LongConverter implements PrimitiveConverter<Long> {
+
+    @Override
+    public Optional<Long> convert(String arg) {
+        return this.accepts(arg) ? Optional.of(Long.parseLong(arg)) : Optional.empty();
+    }
+
+    @Override
+    public Class<?> primitiveType() {
+        return long.class;
+    }
+
+    @Override
+    public boolean accepts(String arg) {
+        return Numbers.isInteger(arg, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    @Override
+    public long parseBits(String arg) {
+        return Long.parseLong(arg);
+    }
+
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
+
+    @Override
+    public int acceptedClasses() {
+        return TokenClass.mask(TokenClass.INT, TokenClass.LONG);
+    }
+}
@@ -0,0 +1,96 @@
+package sh.sagan.deimos.type.converters;
+
+/**
+ * Syntax checks for the numeric converters, so they never have to rely on a NumberFormatException (and fill in its
+ * stack trace) to reject a raw arg. These are also what {@link sh.sagan.deimos.type.TokenClass} classifies raw args
+ * with.
+ */
+public final class Numbers {
+
+    private Numbers() {
+    }
+
+    /**
+     * @return Whether the arg is a base 10 integer (optionally signed) within the given range
+     */
+    public static boolean isInteger(String arg, long min, long max) {
+        int length = arg.length();
+        if (length == 0) {
+            return false;
+        }
+
+        int i = 0;
+        boolean negative = false;
+        char first = arg.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++i == length) {
+                return false;
+            }
+        }
+
+        // accumulated negatively, same as Long.parseLong, so that Long.MIN_VALUE fits
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multiplyMin = limit / 10;
+        long result = 0;
+        for (; i < length; i++) {
+            int digit = arg.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || result < multiplyMin) {
+                return false;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return false;
+            }
+            result -= digit;
+        }
+
+        long value = negative ? result : -result;
+        return value >= min && value <= max;
+    }
+
+    /**
+     * @return Whether the arg is a plain decimal number: an optional sign, digits with an optional fraction and an
+     * optional exponent ("1", "-2.5", ".5", "3e8"). Hex, "NaN", "Infinity" and type suffixes are not accepted.
+     */
+    public static boolean isDecimal(String arg) {
+        int length = arg.length();
+        int i = 0;
+        if (i < length && (arg.charAt(i) == '-' || arg.charAt(i) == '+')) {
+            i++;
+        }
+
+        int digits = 0;
+        for (; i < length && isDigit(arg.charAt(i)); i++) {
+            digits++;
+        }
+        if (i < length && arg.charAt(i) == '.') {
+            for (i++; i < length && isDigit(arg.charAt(i)); i++) {
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+
+        if (i < length && (arg.charAt(i) == 'e' || arg.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (arg.charAt(i) == '-' || arg.charAt(i) == '+')) {
+                i++;
+            }
+            int exponentDigits = 0;
+            for (; i < length && isDigit(arg.charAt(i)); i++) {
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) {
+                return false;
+            }
+        }
+
+        return i == length;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
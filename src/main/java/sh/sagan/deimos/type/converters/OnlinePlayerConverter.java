@@ -2,14 +2,45 @@ package sh.sagan.deimos.type.converters;
 
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
+import sh.sagan.deimos.type.Completer;
 import sh.sagan.deimos.type.Converter;
+import sh.sagan.deimos.type.OnlinePlayerIndex;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
-public class OnlinePlayerConverter implements Converter<Player> {
+public class OnlinePlayerConverter implements Converter<Player>, Completer {
+
+    private final OnlinePlayerIndex index;
+
+    public OnlinePlayerConverter(OnlinePlayerIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * Creates a converter that looks players up through the server instead of an index.
+     */
+    public OnlinePlayerConverter() {
+        this(null);
+    }
 
     @Override
     public Optional<Player> convert(String arg) {
-        return Optional.ofNullable(Bukkit.getServer().getPlayer(arg));
+        if (this.index == null) {
+            return Optional.ofNullable(Bukkit.getServer().getPlayer(arg));
+        }
+        return this.index.match(arg);
+    }
+
+    @Override
+    public List<String> complete(String prefix) {
+        return this.index == null ? Collections.emptyList() : this.index.complete(prefix);
+    }
+
+    // players come and go
+    @Override
+    public boolean isCacheable() {
+        return false;
     }
 }
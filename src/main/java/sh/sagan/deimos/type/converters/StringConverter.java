@@ -10,4 +10,9 @@ public class StringConverter implements Converter<String> {
     public Optional<String> convert(String arg) {
         return Optional.of(arg);
     }
+
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
 }
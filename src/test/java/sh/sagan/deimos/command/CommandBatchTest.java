@@ -0,0 +1,54 @@
+package sh.sagan.deimos.command;
+
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.Test;
+import sh.sagan.deimos.type.converters.IntConverter;
+import sh.sagan.deimos.type.converters.StringConverter;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommandBatchTest {
+
+    private static final Player PLAYER = (Player) Proxy.newProxyInstance(Player.class.getClassLoader(),
+            new Class[]{Player.class}, (proxy, method, args) -> method.getReturnType() == boolean.class ? false : null);
+
+    @Test
+    void givesEveryRepeatedLineItsOwnArguments() {
+        List<Arguments> seen = new ArrayList<>();
+        DeimosCommand command = new DeimosCommand("give") {
+        };
+        command.addSubs(Collections.singletonList(new DeimosCommand.Sub("", false, false, null, Arrays.asList(
+                new DeimosCommand.Arg(Integer.class, new IntConverter(), Optional.empty()),
+                new DeimosCommand.Arg(String.class, new StringConverter(), Optional.empty())),
+                (player, args) -> seen.add(args))));
+
+        List<Invocation> invocations = Arrays.asList(new Invocation(PLAYER, "give 64 dirt"),
+                new Invocation(PLAYER, "give 64 dirt"), new Invocation(PLAYER, "give 32 dirt"),
+                new Invocation(PLAYER, "give 64 dirt"));
+        InvocationResult[] results = new InvocationResult[invocations.size()];
+        new CommandBatch(Collections.singletonList(command), results).run(invocations, 0, invocations.size()).join();
+
+        for (InvocationResult result : results) {
+            assertTrue(result.isExecuted(), result.toString());
+        }
+        assertEquals(4, seen.size());
+        for (int i = 0; i < seen.size(); i++) {
+            for (int j = i + 1; j < seen.size(); j++) {
+                assertNotSame(seen.get(i), seen.get(j));
+            }
+        }
+        assertEquals(64, seen.get(0).get(0));
+        assertEquals(64, seen.get(3).get(0));
+        assertEquals("dirt", seen.get(3).get(1));
+        assertEquals(32, seen.get(2).get(0));
+    }
+}
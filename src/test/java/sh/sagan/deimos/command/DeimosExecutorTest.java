@@ -0,0 +1,68 @@
+package sh.sagan.deimos.command;
+
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.Test;
+import sh.sagan.deimos.command.annotations.Cooldown;
+import sh.sagan.deimos.command.annotations.SubCommand;
+import sh.sagan.deimos.metrics.DispatchMetrics;
+import sh.sagan.deimos.type.TypeRegistry;
+
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeimosExecutorTest {
+
+    private static final Player PLAYER = (Player) Proxy.newProxyInstance(Player.class.getClassLoader(),
+            new Class[]{Player.class}, (proxy, method, args) -> {
+                if (method.getName().equals("getUniqueId")) {
+                    return new UUID(1, 2);
+                }
+                return method.getReturnType() == boolean.class ? false : null;
+            });
+
+    @Test
+    void rejectsLimitedSubsBeforeMatching() {
+        HomeCommand command = new HomeCommand();
+        DispatchMetrics metrics = new DispatchMetrics();
+        command.setMetrics(metrics);
+        command.registerSubs(Logger.getLogger("test"), new TypeRegistry());
+
+        assertTrue(command.execute(PLAYER, "home", new String[]{"set", "base"}));
+        assertTrue(command.execute(PLAYER, "home", new String[]{"set", "base"}));
+        assertEquals(1, command.runs);
+        assertEquals(1, metrics.snapshot().getRateLimited());
+        // the second one never got to the sub commands
+        assertEquals(1, metrics.snapshot().getDispatches());
+
+        // unlimited sub commands are still matched
+        assertTrue(command.execute(PLAYER, "home", new String[]{"list"}));
+        assertTrue(command.execute(PLAYER, "home", new String[]{"set", "base"}));
+        assertEquals(2, command.runs);
+        assertEquals(2, metrics.snapshot().getRateLimited());
+        assertEquals(2, metrics.snapshot().getDispatches());
+    }
+
+    public static class HomeCommand extends DeimosCommand {
+
+        private int runs;
+
+        public HomeCommand() {
+            super("home");
+        }
+
+        @SubCommand(base = "set")
+        @Cooldown(1)
+        private void set(Player player, String name) {
+            this.runs++;
+        }
+
+        @SubCommand(base = "list")
+        private void list(Player player) {
+            this.runs++;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package sh.sagan.deimos.command;
+
+import org.junit.jupiter.api.Test;
+import sh.sagan.deimos.type.Converter;
+import sh.sagan.deimos.type.converters.BooleanConverter;
+import sh.sagan.deimos.type.converters.IntConverter;
+import sh.sagan.deimos.type.converters.StringConverter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the table based matcher against trying every placement of the raw args.
+ */
+class MixMatcherTest {
+
+    private static final Converter<?>[] CONVERTERS = {new IntConverter(), new StringConverter(), new BooleanConverter()};
+    private static final Class<?>[] TYPES = {Integer.class, String.class, Boolean.class};
+    private static final String[] TOKENS = {"1", "-42", "true", "false", "word", "2.5"};
+
+    @Test
+    void matchesTheEarliestPlacementOfRandomLayouts() {
+        Random random = new Random(5);
+        for (int round = 0; round < 20_000; round++) {
+            int arity = 1 + random.nextInt(7);
+            List<DeimosCommand.Arg> args = new ArrayList<>(arity);
+            for (int i = 0; i < arity; i++) {
+                int type = random.nextInt(CONVERTERS.length);
+                // required, optional with no default or optional with a default
+                int kind = random.nextInt(3);
+                args.add(new DeimosCommand.Arg(TYPES[type], CONVERTERS[type],
+                        kind == 0 ? Optional.empty() : Optional.of(kind == 1 ? "" : "default")));
+            }
+            DeimosCommand.Sub sub = new DeimosCommand.Sub("mix", false, false, null, args, null);
+
+            String[] raw = new String[random.nextInt(arity + 2)];
+            for (int i = 0; i < raw.length; i++) {
+                raw[i] = TOKENS[random.nextInt(TOKENS.length)];
+            }
+
+            Tokens tokens = new Tokens(raw);
+            Optional<List<DeimosExecutor.PassType>> actual =
+                    MixMatcher.match(tokens, sub, new ConversionMemo(tokens));
+            assertEquals(bruteForce(raw, sub), actual, sub.getSignature() + " " + String.join(" ", raw));
+        }
+    }
+
+    @Test
+    void leavesOptionalsOutToPlaceALaterRequiredParam() {
+        List<DeimosCommand.Arg> args = new ArrayList<>();
+        args.add(new DeimosCommand.Arg(Integer.class, CONVERTERS[0], Optional.of("")));
+        args.add(new DeimosCommand.Arg(String.class, CONVERTERS[1], Optional.of("x")));
+        args.add(new DeimosCommand.Arg(Integer.class, CONVERTERS[0], Optional.empty()));
+        DeimosCommand.Sub sub = new DeimosCommand.Sub("mix", false, false, null, args, null);
+
+        Tokens tokens = new Tokens(new String[]{"word", "3"});
+        List<DeimosExecutor.PassType> passTypes = MixMatcher.match(tokens, sub, new ConversionMemo(tokens)).get();
+        assertEquals(DeimosExecutor.PassType.PASS_NULL, passTypes.get(0));
+        assertEquals(DeimosExecutor.PassType.PASS_VALUE, passTypes.get(1));
+        assertEquals(DeimosExecutor.PassType.PASS_VALUE, passTypes.get(2));
+    }
+
+    /**
+     * Tries every set of params the raw args could go to, in order, and returns the pass types of the first that
+     * works: the one giving each raw arg the earliest param it can take.
+     */
+    private static Optional<List<DeimosExecutor.PassType>> bruteForce(String[] raw, DeimosCommand.Sub sub) {
+        int arity = sub.arity();
+        int[] best = null;
+        for (long set = 0; set < 1L << arity; set++) {
+            if (Long.bitCount(set) != raw.length || (set & sub.getRequiredMask()) != sub.getRequiredMask()) {
+                continue;
+            }
+            int[] placement = new int[raw.length];
+            boolean accepted = true;
+            for (int i = 0, j = 0; j < arity; j++) {
+                if ((set & (1L << j)) != 0) {
+                    accepted &= sub.getConverter(j).convert(raw[i]).isPresent();
+                    placement[i++] = j;
+                }
+            }
+            if (accepted && (best == null || earlier(placement, best))) {
+                best = placement;
+            }
+        }
+        if (best == null) {
+            return Optional.empty();
+        }
+
+        List<DeimosExecutor.PassType> passTypes = new ArrayList<>(arity);
+        for (int j = 0, i = 0; j < arity; j++) {
+            if (i < best.length && best[i] == j) {
+                passTypes.add(DeimosExecutor.PassType.PASS_VALUE);
+                i++;
+            } else {
+                passTypes.add(sub.getAbsentPassType(j));
+            }
+        }
+        return Optional.of(passTypes);
+    }
+
+    private static boolean earlier(int[] a, int[] b) {
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] != b[i]) {
+                return a[i] < b[i];
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,61 @@
+package sh.sagan.deimos.command;
+
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.Test;
+import sh.sagan.deimos.command.annotations.Choices;
+import sh.sagan.deimos.command.annotations.SubCommand;
+import sh.sagan.deimos.type.TypeRegistry;
+
+import java.lang.reflect.Proxy;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Dispatches args of the same token classes that enum and @Choices params accept or reject by value.
+ */
+class ShapeCacheTest {
+
+    private static final Player PLAYER = (Player) Proxy.newProxyInstance(Player.class.getClassLoader(),
+            new Class[]{Player.class}, (proxy, method, args) -> method.getReturnType() == boolean.class ? false : null);
+
+    @Test
+    void cachesEnumAndChoicesSubsByWhetherTheArgsAreAccepted() {
+        ModeCommand command = new ModeCommand();
+        command.registerSubs(Logger.getLogger("test"), new TypeRegistry());
+
+        assertTrue(command.execute(PLAYER, "mode", new String[]{"mode", "survival", "fast"}));
+        assertEquals("SURVIVAL fast", command.last);
+        assertEquals(1, command.getShapeCache().size());
+
+        // the same token classes, one name is rejected
+        assertFalse(command.execute(PLAYER, "mode", new String[]{"mode", "survival", "nope"}));
+        assertFalse(command.execute(PLAYER, "mode", new String[]{"mode", "nope", "fast"}));
+        assertEquals(3, command.getShapeCache().size());
+
+        // and the first shape is a hit
+        assertTrue(command.execute(PLAYER, "mode", new String[]{"mode", "CREATIVE", "Slow"}));
+        assertEquals("CREATIVE slow", command.last);
+        assertEquals(3, command.getShapeCache().size());
+    }
+
+    public enum Mode {
+        SURVIVAL, CREATIVE
+    }
+
+    public static class ModeCommand extends DeimosCommand {
+
+        private String last;
+
+        public ModeCommand() {
+            super("mode");
+        }
+
+        @SubCommand(base = "mode")
+        private void mode(Player player, Mode mode, @Choices({"fast", "slow"}) String speed) {
+            this.last = mode + " " + speed;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package sh.sagan.deimos.harness;
+
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import sh.sagan.deimos.command.DeimosCommand;
+import sh.sagan.deimos.command.DeimosCommandManager;
+import sh.sagan.deimos.command.annotations.Async;
+import sh.sagan.deimos.command.annotations.Cooldown;
+import sh.sagan.deimos.command.annotations.Optional;
+import sh.sagan.deimos.command.annotations.SubCommand;
+import sh.sagan.deimos.command.annotations.Text;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Registers a command on a {@link LocalServer} and dispatches command lines through its command map, the same way
+ * players run them on a server.
+ */
+class LocalServerTest {
+
+    private LocalServer server;
+    private DeimosCommandManager manager;
+    private ShopCommand command;
+    private Player alex;
+    private Player sam;
+
+    @BeforeEach
+    void setUp() {
+        this.server = new LocalServer();
+        this.alex = this.server.join("Alex");
+        this.sam = this.server.join("Sam");
+        this.manager = new DeimosCommandManager(this.server);
+        this.command = new ShopCommand();
+        this.manager.register(this.command);
+        this.manager.registerAllIntoSpigot();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        this.manager.shutdown();
+        assertTrue(this.server.getLocalScheduler().awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void runsTheSubCommandTheArgsMatch() {
+        assertTrue(this.server.dispatch(this.alex, "/shop buy 3 diamond"));
+        assertEquals("Alex bought 3 diamond", this.command.last);
+
+        // through an alias, with the optional left out
+        assertTrue(this.server.dispatch(this.alex, "store buy 5"));
+        assertEquals("Alex bought 5 stone", this.command.last);
+
+        assertTrue(this.server.dispatch(this.alex, "/shop say see you at spawn"));
+        assertEquals("Alex said see you at spawn", this.command.last);
+        assertTrue(messages(this.alex).isEmpty());
+    }
+
+    @Test
+    void resolvesOnlinePlayers() {
+        assertTrue(this.server.dispatch(this.alex, "/shop gift sam 2"));
+        assertEquals("Alex gave Sam 2", this.command.last);
+
+        this.server.quit(this.sam);
+        this.command.last = null;
+        this.server.dispatch(this.alex, "/shop gift Sam 2");
+        assertNull(this.command.last);
+    }
+
+    @Test
+    void tellsThePlayerWhatTheyMightHaveMeant() {
+        assertTrue(this.server.dispatch(this.alex, "/shop buyy 3 diamond"));
+        assertNull(this.command.last);
+        assertEquals(1, messages(this.alex).size());
+        assertTrue(messages(this.alex).get(0).contains("/shop buy 3 diamond"), messages(this.alex).toString());
+
+        // no command at all
+        assertFalse(this.server.dispatch(this.alex, "/nope"));
+    }
+
+    @Test
+    void tellsThePlayerToWaitOutTheCooldown() {
+        assertTrue(this.server.dispatch(this.alex, "/shop daily"));
+        assertTrue(this.server.dispatch(this.alex, "/shop daily"));
+        assertEquals(1, this.command.dailies);
+        assertEquals(1, messages(this.alex).size());
+        assertTrue(messages(this.alex).get(0).contains("try again in"), messages(this.alex).toString());
+
+        // every player has a cooldown of their own
+        assertTrue(this.server.dispatch(this.sam, "/shop daily"));
+        assertEquals(2, this.command.dailies);
+        assertTrue(messages(this.sam).isEmpty());
+    }
+
+    @Test
+    void runsAsyncSubCommandsOffTheDispatchingThread() throws Exception {
+        assertTrue(this.server.dispatch(this.alex, "/shop restock 10"));
+        String thread = this.command.restocked.get(5, TimeUnit.SECONDS);
+        assertNotEquals(Thread.currentThread().getName(), thread);
+    }
+
+    @Test
+    void countsTheOutcomesOfALoad() throws InterruptedException {
+        List<String> lines = Arrays.asList("shop buy 64 diamond", "shop gift {player} lots", "nope");
+        LoadReport report = new LoadGenerator(this.server, CommandMix.recorded(lines), 1).run(300);
+
+        assertEquals(300, report.getInvocations());
+        assertEquals(100, report.getExecuted());
+        assertEquals(100, report.getRejected());
+        assertEquals(100, report.getUnknown());
+        assertEquals(0, report.getFailed());
+        assertEquals(100, this.manager.getMetrics().snapshot().getInvocations().values().stream()
+                .mapToLong(Long::longValue).sum());
+    }
+
+    private static List<String> messages(Player player) {
+        return FakeSender.of(player).get().getMessages();
+    }
+
+    public static class ShopCommand extends DeimosCommand {
+
+        private volatile String last;
+        private int dailies;
+        private final CompletableFuture<String> restocked = new CompletableFuture<>();
+
+        public ShopCommand() {
+            super("shop", "store");
+        }
+
+        @SubCommand(base = "buy")
+        void buy(Player player, int amount, @Optional("stone") String item) {
+            this.last = player.getName() + " bought " + amount + " " + item;
+        }
+
+        @SubCommand(base = "gift")
+        void gift(Player player, Player target, int amount) {
+            this.last = player.getName() + " gave " + target.getName() + " " + amount;
+        }
+
+        @SubCommand(base = "say")
+        void say(Player player, @Text String message) {
+            this.last = player.getName() + " said " + message;
+        }
+
+        @SubCommand(base = "daily")
+        @Cooldown(1)
+        void daily(Player player) {
+            this.dailies++;
+        }
+
+        @Async
+        @SubCommand(base = "restock")
+        void restock(Player player, int amount) {
+            this.restocked.complete(Thread.currentThread().getName());
+        }
+    }
+}
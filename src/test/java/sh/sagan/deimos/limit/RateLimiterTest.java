@@ -0,0 +1,110 @@
+package sh.sagan.deimos.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+
+    private static final UUID PLAYER = new UUID(1, 2);
+
+    private final AtomicLong clock = new AtomicLong(123_456_789);
+
+    @Test
+    void allowsAFullBurstThenWaitsForTheNextPermit() {
+        RateLimiter limiter = new RateLimiter(3, 9, TimeUnit.SECONDS, this.clock::get);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire(PLAYER));
+        }
+        assertEquals(TimeUnit.SECONDS.toNanos(3), limiter.tryAcquire(PLAYER));
+        // other players have their own bucket
+        assertEquals(0, limiter.tryAcquire(new UUID(2, 1)));
+    }
+
+    @Test
+    void refillsOnePermitPerInterval() {
+        RateLimiter limiter = new RateLimiter(3, 9, TimeUnit.SECONDS, this.clock::get);
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire(PLAYER);
+        }
+
+        this.clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertEquals(TimeUnit.SECONDS.toNanos(1), limiter.tryAcquire(PLAYER));
+        this.clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, limiter.tryAcquire(PLAYER));
+        assertTrue(limiter.tryAcquire(PLAYER) > 0);
+
+        // never more than the burst, however long the player waited
+        this.clock.addAndGet(TimeUnit.HOURS.toNanos(1));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire(PLAYER));
+        }
+        assertTrue(limiter.tryAcquire(PLAYER) > 0);
+    }
+
+    @Test
+    void coolsDownForTheWholePeriod() {
+        RateLimiter limiter = new RateLimiter(1, 5, TimeUnit.SECONDS, this.clock::get);
+        assertEquals(0, limiter.peek(PLAYER));
+        assertEquals(0, limiter.tryAcquire(PLAYER));
+
+        this.clock.addAndGet(TimeUnit.SECONDS.toNanos(4));
+        assertEquals(TimeUnit.SECONDS.toNanos(1), limiter.peek(PLAYER));
+        assertEquals(TimeUnit.SECONDS.toNanos(1), limiter.tryAcquire(PLAYER));
+
+        // peeking does not take the permit
+        this.clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, limiter.peek(PLAYER));
+        assertEquals(0, limiter.peek(PLAYER));
+        assertEquals(0, limiter.tryAcquire(PLAYER));
+        assertTrue(limiter.peek(PLAYER) > 0);
+    }
+
+    @Test
+    void losesNoPermitWhileTheTableGrows() throws InterruptedException {
+        int players = 5_000;
+        int threads = 4;
+        RateLimiter limiter = new RateLimiter(2, 1, TimeUnit.HOURS, this.clock::get);
+        AtomicIntegerArray granted = new AtomicIntegerArray(players);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> running = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                // every thread walks the players from a different place so they race on inserts and on acquires
+                for (int i = 0; i < players; i++) {
+                    int player = (i + offset * players / threads) % players;
+                    if (limiter.tryAcquire(new UUID(player, ~player)) == 0) {
+                        granted.incrementAndGet(player);
+                    }
+                }
+            });
+            thread.start();
+            running.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : running) {
+            thread.join();
+        }
+
+        for (int player = 0; player < players; player++) {
+            assertEquals(2, granted.get(player), "permits of player " + player);
+        }
+        assertEquals(players, limiter.size());
+    }
+}
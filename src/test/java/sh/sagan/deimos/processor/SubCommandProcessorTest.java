@@ -0,0 +1,181 @@
+package sh.sagan.deimos.processor;
+
+import org.junit.jupiter.api.Test;
+import sh.sagan.deimos.command.Arguments;
+import sh.sagan.deimos.command.DeimosCommand;
+import sh.sagan.deimos.command.SubRegistration;
+import sh.sagan.deimos.type.TypeRegistry;
+import sh.sagan.deimos.type.converters.ChoicesConverter;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compiles sample commands with the processor and registers the generated registrations.
+ */
+class SubCommandProcessorTest {
+
+    private static final String SHOP = String.join("\n",
+            "package sample;",
+            "",
+            "import org.bukkit.entity.Player;",
+            "import sh.sagan.deimos.command.DeimosCommand;",
+            "import sh.sagan.deimos.command.annotations.Choices;",
+            "import sh.sagan.deimos.command.annotations.Cooldown;",
+            "import sh.sagan.deimos.command.annotations.Optional;",
+            "import sh.sagan.deimos.command.annotations.RateLimit;",
+            "import sh.sagan.deimos.command.annotations.SubCommand;",
+            "import sh.sagan.deimos.command.annotations.Text;",
+            "",
+            "public class Shops {",
+            "",
+            "    public static class ShopCommand extends DeimosCommand {",
+            "",
+            "        public String last;",
+            "",
+            "        public ShopCommand() {",
+            "            super(\"shop\");",
+            "        }",
+            "",
+            "        @SubCommand(base = \"buy\")",
+            "        @Cooldown(5)",
+            "        void buy(Player player, @Choices({\"sword\", \"bow\"}) String item, @Optional(\"1\") int amount) {",
+            "            this.last = item + \" x\" + amount;",
+            "        }",
+            "",
+            "        @SubCommand(base = \"say\")",
+            "        @RateLimit(permits = 3, per = 10)",
+            "        void say(Player player, @Text String message) {",
+            "            this.last = message;",
+            "        }",
+            "    }",
+            "}");
+
+    @Test
+    void generatesARegistrationForANestedCommand() throws Throwable {
+        Path directory = Files.createTempDirectory("deimos-processor");
+        DiagnosticCollector<JavaFileObject> diagnostics = compile(directory, "sample/Shops.java", SHOP);
+        assertTrue(errors(diagnostics).isEmpty(), errors(diagnostics).toString());
+        assertTrue(Files.exists(generated(directory)));
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{directory.resolve("classes").toUri().toURL()},
+                this.getClass().getClassLoader())) {
+            DeimosCommand command = (DeimosCommand) loader.loadClass("sample.Shops$ShopCommand")
+                    .getConstructor().newInstance();
+            command.registerSubs(Logger.getLogger("test"), new TypeRegistry());
+
+            List<DeimosCommand.Sub> subs = command.getSubs();
+            assertEquals(2, subs.size());
+            DeimosCommand.Sub buy = find(subs, "buy");
+            DeimosCommand.Sub say = find(subs, "say");
+
+            // registered from the generated class, not through reflection
+            assertTrue(buy.getInvoker().getClass().getName()
+                    .startsWith("sample.Shops$ShopCommand" + SubRegistration.SUFFIX));
+
+            assertTrue(buy.getConverter(0) instanceof ChoicesConverter);
+            assertEquals("1", buy.getDefault(1));
+            assertTrue(buy.getLimiter().isPresent());
+            assertTrue(say.getLimiter().isPresent());
+            assertTrue(say.isTextEnding());
+
+            Arguments args = new Arguments(2);
+            args.set(0, "bow");
+            args.setBits(1, 3);
+            buy.getInvoker().invoke(null, args);
+            assertEquals("bow x3", command.getClass().getField("last").get(command));
+        }
+    }
+
+    @Test
+    void rejectsTextBeforeTheLastParam() throws Exception {
+        String source = SHOP.replace("@Text String message", "@Text String message, int times");
+        Path directory = Files.createTempDirectory("deimos-processor");
+        List<String> errors = errors(compile(directory, "sample/Shops.java", source));
+        assertEquals(1, errors.size(), errors.toString());
+        assertTrue(errors.get(0).contains("@Text can only be applied to the last parameter"));
+    }
+
+    @Test
+    void leavesCommandsWithPrivateMethodsToReflection() throws Exception {
+        String source = SHOP.replace("void say(", "private void say(");
+        Path directory = Files.createTempDirectory("deimos-processor");
+        DiagnosticCollector<JavaFileObject> diagnostics = compile(directory, "sample/Shops.java", source);
+        assertTrue(errors(diagnostics).isEmpty(), errors(diagnostics).toString());
+        assertFalse(Files.exists(generated(directory)));
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{directory.resolve("classes").toUri().toURL()},
+                this.getClass().getClassLoader())) {
+            DeimosCommand command = (DeimosCommand) loader.loadClass("sample.Shops$ShopCommand")
+                    .getConstructor().newInstance();
+            command.registerSubs(Logger.getLogger("test"), new TypeRegistry());
+            assertEquals(2, command.getSubs().size());
+            assertFalse(find(command.getSubs(), "buy").getInvoker().getClass().getName()
+                    .startsWith("sample.Shops$ShopCommand" + SubRegistration.SUFFIX));
+        }
+    }
+
+    private static DiagnosticCollector<JavaFileObject> compile(Path directory, String name, String source)
+            throws IOException {
+        Path file = directory.resolve("src").resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+        Files.createDirectories(directory.resolve("classes"));
+        Files.createDirectories(directory.resolve("generated"));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager files = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, files, diagnostics,
+                    Arrays.asList("-classpath", System.getProperty("java.class.path"),
+                            "-d", directory.resolve("classes").toString(),
+                            "-s", directory.resolve("generated").toString()),
+                    null, files.getJavaFileObjects(file.toFile()));
+            task.setProcessors(Collections.singletonList(new SubCommandProcessor()));
+            task.call();
+        }
+        return diagnostics;
+    }
+
+    private static Path generated(Path directory) {
+        return directory.resolve("generated/sample/Shops$ShopCommand" + SubRegistration.SUFFIX + ".java");
+    }
+
+    private static List<String> errors(DiagnosticCollector<JavaFileObject> diagnostics) {
+        List<String> errors = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                errors.add(diagnostic.getMessage(null));
+            }
+        }
+        return errors;
+    }
+
+    private static DeimosCommand.Sub find(List<DeimosCommand.Sub> subs, String base) {
+        for (DeimosCommand.Sub sub : subs) {
+            if (sub.getBase().equals(java.util.Optional.of(base))) {
+                return sub;
+            }
+        }
+        throw new AssertionError("No sub command '" + base + "'");
+    }
+}